@@ -0,0 +1,117 @@
+package org.joml.camera.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH result file against the checked-in baseline and fails if any benchmark got slower or allocates more.
+ * <p>
+ * Both files must have been written by JMH with <code>-rf csv</code> and the GC profiler (<code>-prof gc</code>)
+ * enabled. A benchmark regresses when its score in ns/op exceeds the baseline by more than the relative time
+ * tolerance, or when its normalized allocation rate in B/op exceeds the baseline by more than the absolute allocation
+ * tolerance.
+ * <p>
+ * Usage: <code>java -cp benchmarks.jar org.joml.camera.benchmarks.BaselineCheck baseline.csv result.csv [timeTolerance [allocTolerance]]</code>
+ */
+public class BaselineCheck {
+
+    private static final String ALLOC_SUFFIX = ":gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <baseline.csv> <result.csv> [timeTolerance [allocTolerance]]");
+            System.exit(2);
+        }
+        double timeTolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        double allocTolerance = args.length > 3 ? Double.parseDouble(args[3]) : 1.0;
+        Map<String, double[]> baseline = read(args[0]);
+        Map<String, double[]> result = read(args[1]);
+        int regressions = 0;
+        for (Map.Entry<String, double[]> e : result.entrySet()) {
+            String key = e.getKey();
+            double[] base = baseline.get(key);
+            if (base == null) {
+                System.out.println("NEW      " + key);
+                continue;
+            }
+            double[] cur = e.getValue();
+            boolean slower = cur[0] > base[0] * (1.0 + timeTolerance);
+            boolean allocates = cur[1] > base[1] + allocTolerance;
+            String status = slower || allocates ? "REGRESS " : "OK      ";
+            System.out.printf("%s %s: %.3f -> %.3f ns/op, %.1f -> %.1f B/op%n", status, key, base[0], cur[0], base[1], cur[1]);
+            if (slower || allocates) {
+                regressions++;
+            }
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Read a JMH CSV result file into a map from benchmark name and parameters to <code>{ns/op, B/op}</code>.
+     */
+    private static Map<String, double[]> read(String file) throws IOException {
+        Map<String, double[]> results = new LinkedHashMap<String, double[]>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line = reader.readLine();
+            if (line == null) {
+                return results;
+            }
+            List<String> header = split(line);
+            int benchmarkCol = header.indexOf("Benchmark");
+            int scoreCol = header.indexOf("Score");
+            int unitCol = header.indexOf("Unit");
+            while ((line = reader.readLine()) != null) {
+                List<String> row = split(line);
+                String benchmark = row.get(benchmarkCol);
+                StringBuilder params = new StringBuilder();
+                for (int i = unitCol + 1; i < row.size(); i++) {
+                    params.append(' ').append(header.get(i)).append('=').append(row.get(i));
+                }
+                boolean alloc = benchmark.endsWith(ALLOC_SUFFIX);
+                if (!alloc && benchmark.indexOf(':') >= 0) {
+                    continue;
+                }
+                String key = (alloc ? benchmark.substring(0, benchmark.length() - ALLOC_SUFFIX.length()) : benchmark) + params;
+                double[] value = results.get(key);
+                if (value == null) {
+                    value = new double[2];
+                    results.put(key, value);
+                }
+                value[alloc ? 1 : 0] = Double.parseDouble(row.get(scoreCol));
+            }
+        } finally {
+            reader.close();
+        }
+        return results;
+    }
+
+    private static List<String> split(String line) {
+        List<String> cols = new ArrayList<String>();
+        StringBuilder col = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                cols.add(col.toString());
+                col.setLength(0);
+            } else {
+                col.append(c);
+            }
+        }
+        cols.add(col.toString());
+        return cols;
+    }
+
+}
@@ -0,0 +1,116 @@
+package org.joml.camera.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.joml.Matrix4f;
+import org.joml.camera.ArcBallCamera;
+import org.joml.camera.CameraGroup;
+import org.joml.camera.FreeCamera;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks updating and building view matrices of {@link FreeCamera} and {@link ArcBallCamera}, both in a loop and
+ * through a {@link CameraGroup} running on the common {@link ForkJoinPool}.
+ * <p>
+ * Each invocation processes {@link #count} cameras.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(5)
+@State(Scope.Thread)
+public class CameraBenchmark {
+
+    private static final float DT = 1.0f / 60.0f;
+
+    @Param({ "1", "1000" })
+    public int count;
+
+    private FreeCamera[] freeCameras;
+    private ArcBallCamera[] arcBallCameras;
+    private CameraGroup group;
+    private final Matrix4f m = new Matrix4f();
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(12345L);
+        freeCameras = new FreeCamera[count];
+        arcBallCameras = new ArcBallCamera[count];
+        for (int i = 0; i < count; i++) {
+            FreeCamera f = new FreeCamera();
+            f.linearVel.set(rnd.nextFloat(), rnd.nextFloat(), rnd.nextFloat());
+            f.angularVel.set(rnd.nextFloat() * 0.1f, rnd.nextFloat() * 0.1f, rnd.nextFloat() * 0.1f);
+            freeCameras[i] = f;
+            ArcBallCamera a = new ArcBallCamera();
+            a.setAlpha(rnd.nextDouble() * Math.PI);
+            a.setBeta(rnd.nextDouble() - 0.5);
+            a.zoom(5.0 + rnd.nextDouble() * 10.0);
+            a.center(rnd.nextFloat(), rnd.nextFloat(), rnd.nextFloat());
+            arcBallCameras[i] = a;
+        }
+        group = new CameraGroup(ForkJoinPool.commonPool(), count);
+        for (int i = 0; i < count; i++) {
+            FreeCamera f = new FreeCamera();
+            f.linearVel.set(freeCameras[i].linearVel);
+            f.angularVel.set(freeCameras[i].angularVel);
+            group.add(f);
+        }
+    }
+
+    @Benchmark
+    public void freeCameraUpdate() {
+        FreeCamera[] cameras = freeCameras;
+        for (int i = 0; i < cameras.length; i++) {
+            cameras[i].update(DT);
+        }
+    }
+
+    @Benchmark
+    public void freeCameraApply(Blackhole bh) {
+        FreeCamera[] cameras = freeCameras;
+        for (int i = 0; i < cameras.length; i++) {
+            bh.consume(cameras[i].apply(m.identity()).m30());
+        }
+    }
+
+    @Benchmark
+    public void arcBallCameraUpdate() {
+        ArcBallCamera[] cameras = arcBallCameras;
+        for (int i = 0; i < cameras.length; i++) {
+            ArcBallCamera c = cameras[i];
+            c.update(DT);
+            if (c.alphaMover.current == c.alphaMover.target) {
+                c.setAlpha(c.getAlpha() + 2.0);
+            }
+        }
+    }
+
+    @Benchmark
+    public void arcBallCameraViewMatrix(Blackhole bh) {
+        ArcBallCamera[] cameras = arcBallCameras;
+        for (int i = 0; i < cameras.length; i++) {
+            bh.consume(cameras[i].viewMatrix(m.identity()).m30());
+        }
+    }
+
+    @Benchmark
+    public void cameraGroupUpdate(Blackhole bh) {
+        group.update(DT);
+        bh.consume(group.getMatrices().get(0));
+    }
+
+}
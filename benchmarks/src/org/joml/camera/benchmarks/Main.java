@@ -0,0 +1,53 @@
+package org.joml.camera.benchmarks;
+
+/**
+ * Runs JMH with the given command line like <code>org.openjdk.jmh.Main</code>, but lets the forked JVMs resolve the
+ * <code>jdk.incubator.vector</code> module when this JVM has it, so that the batch benchmarks measure the Vector API
+ * implementation of the multi-release JAR.
+ * <p>
+ * Older JVMs, including the Java 8 JVM which the benchmarks are compiled for, would refuse to start with
+ * <code>--add-modules</code>, so there the benchmarks run against the baseline classes instead. The forks use the same
+ * JVM as this one unless <code>-jvm</code> is given.
+ */
+public class Main {
+
+    private static final String ADD_VECTOR_MODULE = "--add-modules=jdk.incubator.vector";
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(hasVectorModule() ? addVectorModule(args) : args);
+    }
+
+    /**
+     * The incubating Vector API exists since Java 16. The specification version is <code>1.x</code> before Java 9.
+     */
+    static boolean hasVectorModule() {
+        String version = System.getProperty("java.specification.version");
+        if (version.startsWith("1.")) {
+            return false;
+        }
+        try {
+            return Integer.parseInt(version) >= 16;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Add the module to the <code>-jvmArgsAppend</code> option, or add that option if it is missing.
+     */
+    static String[] addVectorModule(String[] args) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if ("-jvmArgsAppend".equals(args[i])) {
+                String[] result = args.clone();
+                result[i + 1] = args[i + 1] + " " + ADD_VECTOR_MODULE;
+                return result;
+            }
+        }
+        String[] result = new String[args.length + 2];
+        System.arraycopy(args, 0, result, 0, args.length);
+        result[args.length] = "-jvmArgsAppend";
+        result[args.length + 1] = ADD_VECTOR_MODULE;
+        return result;
+    }
+
+}
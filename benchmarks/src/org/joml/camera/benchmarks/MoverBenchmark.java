@@ -0,0 +1,182 @@
+package org.joml.camera.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.joml.camera.ArcRotor;
+import org.joml.camera.ArcRotorBatch;
+import org.joml.camera.MoverScheduler;
+import org.joml.camera.ScalarMover;
+import org.joml.camera.ScalarMoverBatch;
+import org.joml.camera.Vector3Mover;
+import org.joml.camera.Vector3MoverBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the <code>update</code> methods of the movers.
+ * <p>
+ * Each invocation updates {@link #count} movers by one 60 Hz step. Movers which reached their target get a new one, so
+ * that every invocation measures actual movement instead of the early-out for settled movers. The exception is
+ * {@link #vector3MoverSchedulerUpdate()}, which only gives one mover a new target per invocation and lets the
+ * {@link MoverScheduler} skip the settled ones.
+ * <p>
+ * The scalar movers start at random positions between both of their targets, so that they are out of phase from the
+ * start. Otherwise they would slowly drift out of phase during the run, and the branches of the loop would become less
+ * predictable from one iteration to the next.
+ * <p>
+ * When started through {@link Main}, the forked JVM resolves the <code>jdk.incubator.vector</code> module if it has
+ * it, so that the batch benchmarks measure the Vector API implementation of the multi-release JAR.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(5)
+@State(Scope.Thread)
+public class MoverBenchmark {
+
+    private static final float DT = 1.0f / 60.0f;
+    private static final float SETTLED_DISTANCE_SQUARED = 1E-8f;
+
+    @Param({ "1", "10000" })
+    public int count;
+
+    private ScalarMover[] scalarMovers;
+    private ScalarMoverBatch scalarMoverBatch;
+    private ArcRotor[] arcRotors;
+    private ArcRotorBatch arcRotorBatch;
+    private Vector3Mover[] vector3Movers;
+    private Vector3MoverBatch vector3MoverBatch;
+    private Vector3Mover[] scheduledMovers;
+    private MoverScheduler scheduler;
+    private int nextRetarget;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(12345L);
+        scalarMovers = new ScalarMover[count];
+        scalarMoverBatch = new ScalarMoverBatch(count);
+        arcRotors = new ArcRotor[count];
+        arcRotorBatch = new ArcRotorBatch(count);
+        vector3Movers = new Vector3Mover[count];
+        vector3MoverBatch = new Vector3MoverBatch(count);
+        for (int i = 0; i < count; i++) {
+            ScalarMover s = new ScalarMover();
+            s.current = (rnd.nextDouble() * 2.0 - 1.0) * 100.0;
+            s.target = rnd.nextBoolean() ? 100.0 : -100.0;
+            scalarMovers[i] = s;
+            scalarMoverBatch.add(s);
+            ArcRotor a = new ArcRotor();
+            a.current = rnd.nextDouble() * Math.PI;
+            a.target = Math.PI * 1.5;
+            arcRotors[i] = a;
+            arcRotorBatch.add(a);
+            Vector3Mover v = new Vector3Mover();
+            v.current.set(rnd.nextFloat(), rnd.nextFloat(), rnd.nextFloat());
+            v.target.set(10.0f, 5.0f, -10.0f);
+            vector3Movers[i] = v;
+            vector3MoverBatch.add(v);
+        }
+        scheduledMovers = new Vector3Mover[count];
+        scheduler = new MoverScheduler();
+        for (int i = 0; i < count; i++) {
+            Vector3Mover v = new Vector3Mover();
+            scheduledMovers[i] = v;
+            scheduler.add(v);
+        }
+    }
+
+    @Benchmark
+    public void scalarMoverUpdate() {
+        ScalarMover[] movers = scalarMovers;
+        for (int i = 0; i < movers.length; i++) {
+            ScalarMover m = movers[i];
+            m.update(DT);
+            if (m.current == m.target) {
+                m.target = -m.target;
+            }
+        }
+    }
+
+    @Benchmark
+    public void arcRotorUpdate() {
+        ArcRotor[] movers = arcRotors;
+        for (int i = 0; i < movers.length; i++) {
+            ArcRotor m = movers[i];
+            m.update(DT);
+            if (m.current == m.target) {
+                m.target = (m.target + 2.0) % (2.0 * Math.PI);
+            }
+        }
+    }
+
+    @Benchmark
+    public void scalarMoverBatchUpdate() {
+        ScalarMoverBatch b = scalarMoverBatch;
+        b.update(DT);
+        double[] current = b.current, target = b.target;
+        for (int i = 0, n = b.size(); i < n; i++) {
+            if (current[i] == target[i]) {
+                target[i] = -target[i];
+            }
+        }
+    }
+
+    @Benchmark
+    public void arcRotorBatchUpdate() {
+        ArcRotorBatch b = arcRotorBatch;
+        b.update(DT);
+        double[] current = b.current, target = b.target;
+        for (int i = 0, n = b.size(); i < n; i++) {
+            if (current[i] == target[i]) {
+                target[i] = (target[i] + 2.0) % (2.0 * Math.PI);
+            }
+        }
+    }
+
+    @Benchmark
+    public void vector3MoverUpdate() {
+        Vector3Mover[] movers = vector3Movers;
+        for (int i = 0; i < movers.length; i++) {
+            Vector3Mover m = movers[i];
+            m.update(DT);
+            if (m.current.distanceSquared(m.target) < SETTLED_DISTANCE_SQUARED) {
+                m.target.negate();
+            }
+        }
+    }
+
+    @Benchmark
+    public void vector3MoverBatchUpdate() {
+        Vector3MoverBatch b = vector3MoverBatch;
+        b.update(DT);
+        float[] current = b.current, target = b.target;
+        for (int i = 0, n = 3 * b.size(); i < n; i += 3) {
+            float dx = target[i] - current[i], dy = target[i + 1] - current[i + 1], dz = target[i + 2] - current[i + 2];
+            if (dx * dx + dy * dy + dz * dz < SETTLED_DISTANCE_SQUARED) {
+                target[i] = -target[i];
+                target[i + 1] = -target[i + 1];
+                target[i + 2] = -target[i + 2];
+            }
+        }
+    }
+
+    @Benchmark
+    public void vector3MoverSchedulerUpdate() {
+        Vector3Mover m = scheduledMovers[nextRetarget];
+        nextRetarget = (nextRetarget + 1) % scheduledMovers.length;
+        m.setTarget(-m.target.x + 10.0f, 5.0f, -10.0f);
+        scheduler.update(DT);
+    }
+
+}
@@ -0,0 +1,89 @@
+package org.joml.camera.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joml.camera.OrthoCameraControl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the mouse handlers of {@link OrthoCameraControl}.
+ * <p>
+ * Each invocation delivers one event to each of {@link #count} controls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(5)
+@State(Scope.Thread)
+public class OrthoCameraControlBenchmark {
+
+    @Param({ "1", "1000" })
+    public int count;
+
+    private OrthoCameraControl[] panning;
+    private OrthoCameraControl[] rotating;
+    private OrthoCameraControl[] zooming;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        panning = new OrthoCameraControl[count];
+        rotating = new OrthoCameraControl[count];
+        zooming = new OrthoCameraControl[count];
+        for (int i = 0; i < count; i++) {
+            panning[i] = newControl(OrthoCameraControl.MOUSE_LEFT);
+            rotating[i] = newControl(OrthoCameraControl.MOUSE_RIGHT);
+            zooming[i] = newControl(-1);
+        }
+    }
+
+    private static OrthoCameraControl newControl(int button) {
+        OrthoCameraControl c = new OrthoCameraControl(10.0f);
+        c.setSize(1920, 1080);
+        c.setMinRotateWinDistance(10.0f);
+        c.onMouseMove(960, 540);
+        if (button >= 0) {
+            c.onMouseDown(button);
+        }
+        return c;
+    }
+
+    @Benchmark
+    public void pan() {
+        int t = tick++ & 63;
+        OrthoCameraControl[] controls = panning;
+        for (int i = 0; i < controls.length; i++) {
+            controls[i].onMouseMove(960 + t, 540 - t);
+        }
+    }
+
+    @Benchmark
+    public void rotate() {
+        int t = tick++ & 63;
+        OrthoCameraControl[] controls = rotating;
+        for (int i = 0; i < controls.length; i++) {
+            controls[i].onMouseMove(1160 + t, 740 - t);
+        }
+    }
+
+    @Benchmark
+    public void zoom() {
+        float scale = (tick++ & 1) == 0 ? 1.01f : 1.0f / 1.01f;
+        OrthoCameraControl[] controls = zooming;
+        for (int i = 0; i < controls.length; i++) {
+            controls[i].zoom(scale);
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.joml.camera;
+
+/**
+ * Dispatches the updates of {@link ScalarMoverBatch} and {@link ArcRotorBatch} to {@link VectorBatchKernels} when the
+ * <code>jdk.incubator.vector</code> module is resolved and vectors hold more than one <code>double</code>, and to the
+ * scalar reference implementation otherwise.
+ * <p>
+ * {@link VectorBatchKernels} is only loaded after the module was found, so this class links without it.
+ */
+class BatchKernels {
+
+    private static final boolean VECTORIZED = available();
+
+    private static boolean available() {
+        if ("false".equals(System.getProperty("joml.camera.vectorize"))) {
+            return false;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorBatchKernels.lanes() > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    static boolean vectorized() {
+        return VECTORIZED;
+    }
+
+    static void update(ScalarMoverBatch batch, float elapsedTimeInSeconds, int from, int to) {
+        if (VECTORIZED) {
+            VectorBatchKernels.update(batch, elapsedTimeInSeconds, from, to);
+        } else {
+            batch.updateScalar(elapsedTimeInSeconds, from, to);
+        }
+    }
+
+    static void update(ArcRotorBatch batch, float elapsedTimeInSeconds, int from, int to) {
+        if (VECTORIZED) {
+            VectorBatchKernels.update(batch, elapsedTimeInSeconds, from, to);
+        } else {
+            batch.updateScalar(elapsedTimeInSeconds, from, to);
+        }
+    }
+
+}
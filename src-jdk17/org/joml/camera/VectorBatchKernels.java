@@ -0,0 +1,137 @@
+package org.joml.camera;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Updates {@link ScalarMoverBatch} and {@link ArcRotorBatch} with the Vector API, processing as many movers per
+ * instruction as the preferred <code>double</code> vector holds.
+ * <p>
+ * The branches of the scalar code become masks: the accelerate/decelerate decision and the overshoot clamp are
+ * computed for all lanes and selected with <code>blend</code>, and settled movers are written back unchanged. Only
+ * basic IEEE 754 operations are used in the same order as in the scalar code, so the results are bit-identical.
+ * <p>
+ * Java's <code>%</code> has no lanewise counterpart, so angles are wrapped around by subtracting <code>2&pi;</code>
+ * or <code>4&pi;</code>, which is exact for values in <code>[2&pi;, 8&pi;]</code> and yields the same result as
+ * <code>%</code> for all values in <code>[0, 6&pi;)</code>. Lanes for which this does not hold are updated by the
+ * scalar code instead. The remainder of a range which does not fill a vector is handed to the scalar code as well.
+ * <p>
+ * The loop bodies are kept small on purpose, and all constants are broadcast once before the loops: when C2 runs out
+ * of its node budget while inlining the Vector API, the remaining operations are not intrinsified and allocate a vector
+ * each.
+ */
+class VectorBatchKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double TWO_PI = 2.0 * Math.PI;
+    /* Keeps the distance plus 2 pi clear of 4 pi, where the rounded sum would wrap differently than % */
+    private static final double MAX_DISTANCE = 6.283185307;
+    /* Rounding cannot make this greater than three times TWO_PI, so any value below it wraps at most twice */
+    private static final double SIX_PI = 3.0 * TWO_PI;
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    static void update(ScalarMoverBatch batch, float elapsedTimeInSeconds, int from, int to) {
+        double[] cur = batch.current, tgt = batch.target, vel = batch.velocity;
+        double[] maxAcc = batch.maxAcceleration, maxDec = batch.maxDeceleration;
+        DoubleVector zero = DoubleVector.zero(SPECIES), two = DoubleVector.broadcast(SPECIES, 2.0);
+        DoubleVector dt = DoubleVector.broadcast(SPECIES, elapsedTimeInSeconds);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector c = DoubleVector.fromArray(SPECIES, cur, i);
+            DoubleVector t = DoubleVector.fromArray(SPECIES, tgt, i);
+            VectorMask<Double> active = c.compare(VectorOperators.NE, t);
+            if (!active.anyTrue()) {
+                continue;
+            }
+            DoubleVector v = DoubleVector.fromArray(SPECIES, vel, i);
+            DoubleVector currentToTarget = t.sub(c);
+            DoubleVector distance = currentToTarget.abs();
+            DoubleVector decelerationLimit = DoubleVector.fromArray(SPECIES, maxDec, i);
+            VectorMask<Double> decelerate = v.mul(currentToTarget).compare(VectorOperators.GT, zero)
+                    .and(v.mul(v).div(decelerationLimit.mul(two)).compare(VectorOperators.GE, distance));
+            DoubleVector newVelocity = v.add(acceleration(decelerate, currentToTarget, zero, maxAcc, decelerationLimit, i).mul(dt));
+            DoubleVector way = newVelocity.mul(dt);
+            VectorMask<Double> overshoot = newVelocity.mul(currentToTarget).compare(VectorOperators.GT, zero)
+                    .and(way.abs().compare(VectorOperators.GT, distance));
+            v.blend(newVelocity.blend(zero, overshoot), active).intoArray(vel, i);
+            c.blend(c.add(way).blend(t, overshoot), active).intoArray(cur, i);
+        }
+        batch.updateScalar(elapsedTimeInSeconds, i, to);
+    }
+
+    static void update(ArcRotorBatch batch, float elapsedTimeInSeconds, int from, int to) {
+        double[] cur = batch.current, tgt = batch.target, vel = batch.velocity;
+        double[] maxAcc = batch.maxAcceleration, maxDec = batch.maxDeceleration;
+        DoubleVector zero = DoubleVector.zero(SPECIES), two = DoubleVector.broadcast(SPECIES, 2.0);
+        DoubleVector dt = DoubleVector.broadcast(SPECIES, elapsedTimeInSeconds);
+        DoubleVector pi = DoubleVector.broadcast(SPECIES, Math.PI), twoPi = DoubleVector.broadcast(SPECIES, TWO_PI);
+        DoubleVector fourPi = twoPi.mul(two), sixPi = DoubleVector.broadcast(SPECIES, SIX_PI);
+        DoubleVector maxDistance = DoubleVector.broadcast(SPECIES, MAX_DISTANCE);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector c = DoubleVector.fromArray(SPECIES, cur, i);
+            DoubleVector t = DoubleVector.fromArray(SPECIES, tgt, i);
+            VectorMask<Double> active = c.compare(VectorOperators.NE, t);
+            if (!active.anyTrue()) {
+                continue;
+            }
+            /*
+             * The signed distance to the target along the shortest arc, as in ArcRotor. Its magnitude needs no
+             * wraparound in the lanes which pass the range check below.
+             */
+            DoubleVector difference = c.sub(t);
+            DoubleVector absDifference = difference.abs();
+            DoubleVector distance = pi.sub(absDifference.sub(pi).abs());
+            DoubleVector currentToTarget = distance.lanewise(VectorOperators.NEG,
+                    wrap(difference.add(twoPi), twoPi).compare(VectorOperators.LT, pi));
+            DoubleVector v = DoubleVector.fromArray(SPECIES, vel, i);
+            DoubleVector decelerationLimit = DoubleVector.fromArray(SPECIES, maxDec, i);
+            VectorMask<Double> decelerate = v.mul(currentToTarget).compare(VectorOperators.GT, zero)
+                    .and(v.mul(v).div(decelerationLimit.mul(two)).compare(VectorOperators.GE, distance));
+            DoubleVector newVelocity = v.add(acceleration(decelerate, currentToTarget, zero, maxAcc, decelerationLimit, i).mul(dt));
+            DoubleVector way = newVelocity.mul(dt);
+            VectorMask<Double> overshoot = newVelocity.mul(currentToTarget).compare(VectorOperators.GT, zero)
+                    .and(way.abs().compare(VectorOperators.GT, distance));
+            DoubleVector moved = c.add(way).add(twoPi);
+            VectorMask<Double> outside = absDifference.compare(VectorOperators.GT, maxDistance)
+                    .or(moved.compare(VectorOperators.LT, zero))
+                    .or(moved.compare(VectorOperators.GE, sixPi));
+            VectorMask<Double> fallback = outside.and(active);
+            VectorMask<Double> vectorized = active.andNot(outside);
+            v.blend(newVelocity.blend(zero, overshoot), vectorized).intoArray(vel, i);
+            DoubleVector wrapped = wrap(moved, twoPi).blend(moved.sub(fourPi), moved.compare(VectorOperators.GE, fourPi));
+            c.blend(wrapped.blend(t, overshoot), vectorized).intoArray(cur, i);
+            if (fallback.anyTrue()) {
+                /* Rare, so the mask may be boxed across the calls */
+                for (int lane = 0; lane < SPECIES.length(); lane++) {
+                    if (fallback.laneIsSet(lane)) {
+                        batch.updateScalar(elapsedTimeInSeconds, i + lane, i + lane + 1);
+                    }
+                }
+            }
+        }
+        batch.updateScalar(elapsedTimeInSeconds, i, to);
+    }
+
+    /**
+     * Select the maximum acceleration or the negated maximum deceleration and point it towards the target.
+     */
+    private static DoubleVector acceleration(VectorMask<Double> decelerate, DoubleVector currentToTarget, DoubleVector zero,
+            double[] maxAcc, DoubleVector decelerationLimit, int i) {
+        return DoubleVector.fromArray(SPECIES, maxAcc, i).blend(decelerationLimit.neg(), decelerate)
+                .lanewise(VectorOperators.NEG, currentToTarget.compare(VectorOperators.LT, zero));
+    }
+
+    /**
+     * Compute <code>x % 2&pi;</code> for all lanes in <code>[0, 4&pi;)</code>.
+     */
+    private static DoubleVector wrap(DoubleVector x, DoubleVector twoPi) {
+        return x.blend(x.sub(twoPi), x.compare(VectorOperators.GE, twoPi));
+    }
+
+}
@@ -0,0 +1,377 @@
+package org.joml.camera;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Shares the state of a {@link FreeCamera} or an {@link ArcBallCamera} with other processes on the same host through
+ * a memory-mapped file region of {@value #SIZE} bytes.
+ * <p>
+ * A single writer stores the complete camera state into the region, usually after every update of the camera. Any
+ * number of readers in any process map the same region and copy a consistent state into their own camera without
+ * locks and without system calls. A reader which only renders can {@link #readViewMatrix(Matrix4f) read the view
+ * matrix} alone.
+ * <p>
+ * Consistency is ensured by a sequence number at the start of the region (a "seqlock"): the writer makes it odd
+ * before and even again after writing, and a reader retries while the number is odd or changed during its read.
+ * Writing never waits for readers. A reader waits at most {@link #readTimeoutMillis} for a write to finish, so that
+ * a writer process which died while writing does not block it forever.
+ * <p>
+ * This is the implementation for JDK 9 and later in the multi-release JAR.
+ * <p>
+ * Several cameras can share one file by using regions at different positions. Values are stored in the native byte
+ * order, since all processes must run on the same host anyway.
+ */
+public class SharedCameraState {
+
+    /**
+     * The size of a region in bytes.
+     */
+    public static final int SIZE = 256;
+
+    static final int MAGIC = 0x5341434a; // "JCAS" in little-endian
+    static final short FREE_CAMERA = 1;
+    static final short ARC_BALL_CAMERA = 2;
+
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int MAGIC_OFFSET = 8;
+    private static final int KIND_OFFSET = 12;
+    private static final int DATA_OFFSET = 16;
+
+    /* The number of spins between two looks at the clock while waiting for a write, a power of two */
+    private static final int SPINS_PER_CLOCK_CHECK = 256;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * The time in milliseconds which a read waits for a write to finish before it fails.
+     */
+    public long readTimeoutMillis = 100L;
+
+    private final RandomAccessFile file;
+    private final ByteBuffer buffer;
+    /* The sequence number of the last write, only used by the writer */
+    private long sequence;
+
+    /* Some helper objects */
+    private final Matrix4f view = new Matrix4f();
+    private final float[] matrix = new float[16];
+
+    /**
+     * Return whether shared camera states work on this JVM, which requires JDK 9 or later and the multi-release JAR.
+     *
+     * @return <code>true</code> for this implementation
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Map the region of {@value #SIZE} bytes at the given position of the given file, creating or growing the file if
+     * necessary.
+     *
+     * @param file
+     *            the file to map
+     * @param position
+     *            the position of the region in the file. Must be a multiple of 8
+     * @throws IOException
+     *            if the file cannot be opened or mapped
+     */
+    public SharedCameraState(File file, long position) throws IOException {
+        if (position < 0 || position % 8 != 0) {
+            throw new IllegalArgumentException("position must be a non-negative multiple of 8");
+        }
+        this.file = new RandomAccessFile(file, "rw");
+        MappedByteBuffer b = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, position, SIZE);
+        b.order(ByteOrder.nativeOrder());
+        buffer = b;
+        /* Continue after a previous writer, even if it stopped while writing */
+        sequence = ((long) LONGS.getAcquire(buffer, SEQUENCE_OFFSET) + 1L) & ~1L;
+    }
+
+    /**
+     * Return the sequence number of the most recently written state, which readers can compare to the value returned
+     * by a previous read to skip unchanged states.
+     *
+     * @return the sequence number, which is odd while a state is being written and <code>0</code> before the first
+     *         write
+     */
+    public long getSequence() {
+        return (long) LONGS.getAcquire(buffer, SEQUENCE_OFFSET);
+    }
+
+    /**
+     * Write the state of the given {@link FreeCamera}: its time, position, rotation, velocities, accelerations and
+     * view matrix.
+     *
+     * @param camera
+     *            the camera to write
+     * @param time
+     *            the simulation time of the state
+     */
+    public void write(FreeCamera camera, double time) {
+        camera.viewMatrix(view.identity());
+        ByteBuffer b = buffer;
+        int o = beginWrite(FREE_CAMERA, time);
+        o = put(b, o, camera.position);
+        Quaternionf q = camera.rotation;
+        b.putFloat(o, q.x);
+        b.putFloat(o + 4, q.y);
+        b.putFloat(o + 8, q.z);
+        b.putFloat(o + 12, q.w);
+        o = put(b, o + 16, camera.linearVel);
+        o = put(b, o, camera.angularVel);
+        o = put(b, o, camera.linearAcc);
+        o = put(b, o, camera.angularAcc);
+        put(b, o, view);
+        endWrite();
+    }
+
+    /**
+     * Write the state of the given {@link ArcBallCamera}: its time, the current value, target and velocity of all
+     * movers, the acceleration of the center mover and its view matrix.
+     *
+     * @param camera
+     *            the camera to write
+     * @param time
+     *            the simulation time of the state
+     */
+    public void write(ArcBallCamera camera, double time) {
+        camera.viewMatrix(view.identity());
+        ByteBuffer b = buffer;
+        int o = beginWrite(ARC_BALL_CAMERA, time);
+        o = put(b, o, camera.alphaMover.current, camera.alphaMover.target, camera.alphaMover.velocity);
+        o = put(b, o, camera.betaMover.current, camera.betaMover.target, camera.betaMover.velocity);
+        o = put(b, o, camera.zoomMover.current, camera.zoomMover.target, camera.zoomMover.velocity);
+        Vector3Mover center = camera.centerMover;
+        o = put(b, o, center.current);
+        o = put(b, o, center.target);
+        o = put(b, o, center.velocity);
+        o = put(b, o, center.acceleration);
+        put(b, o, view);
+        endWrite();
+    }
+
+    private int beginWrite(short kind, double time) {
+        ByteBuffer b = buffer;
+        long s = sequence + 1L;
+        sequence = s;
+        LONGS.setOpaque(b, SEQUENCE_OFFSET, s);
+        /* Make the odd sequence number visible before any of the following writes */
+        VarHandle.releaseFence();
+        b.putInt(MAGIC_OFFSET, MAGIC);
+        b.putShort(KIND_OFFSET, kind);
+        b.putDouble(DATA_OFFSET, time);
+        return DATA_OFFSET + 8;
+    }
+
+    private void endWrite() {
+        long s = sequence + 1L;
+        sequence = s;
+        LONGS.setRelease(buffer, SEQUENCE_OFFSET, s);
+    }
+
+    /**
+     * Copy the most recently written state into the given {@link FreeCamera}, waiting while it is being written.
+     *
+     * @param camera
+     *            will hold the state
+     * @return the sequence number of the state, or <code>0</code> if no state was written yet, in which case the
+     *         camera is not modified
+     * @throws IllegalStateException
+     *            if the state is still being written after {@link #readTimeoutMillis}
+     */
+    public long read(FreeCamera camera) {
+        ByteBuffer b = buffer;
+        while (true) {
+            long s = beginRead(FREE_CAMERA);
+            if (s == 0L) {
+                return 0L;
+            }
+            int o = get(b, DATA_OFFSET + 8, camera.position);
+            camera.rotation.set(b.getFloat(o), b.getFloat(o + 4), b.getFloat(o + 8), b.getFloat(o + 12));
+            o = get(b, o + 16, camera.linearVel);
+            o = get(b, o, camera.angularVel);
+            o = get(b, o, camera.linearAcc);
+            get(b, o, camera.angularAcc);
+            if (endRead(s)) {
+                camera.resetInterpolation();
+                return s;
+            }
+        }
+    }
+
+    /**
+     * Copy the most recently written state into the given {@link ArcBallCamera}, waiting while it is being written.
+     *
+     * @param camera
+     *            will hold the state
+     * @return the sequence number of the state, or <code>0</code> if no state was written yet, in which case the
+     *         camera is not modified
+     * @throws IllegalStateException
+     *            if the state is still being written after {@link #readTimeoutMillis}
+     */
+    public long read(ArcBallCamera camera) {
+        ByteBuffer b = buffer;
+        Vector3Mover center = camera.centerMover;
+        while (true) {
+            long s = beginRead(ARC_BALL_CAMERA);
+            if (s == 0L) {
+                return 0L;
+            }
+            int o = DATA_OFFSET + 8;
+            camera.alphaMover.current = b.getDouble(o);
+            camera.alphaMover.target = b.getDouble(o + 8);
+            camera.alphaMover.velocity = b.getDouble(o + 16);
+            camera.betaMover.current = b.getDouble(o + 24);
+            camera.betaMover.target = b.getDouble(o + 32);
+            camera.betaMover.velocity = b.getDouble(o + 40);
+            camera.zoomMover.current = b.getDouble(o + 48);
+            camera.zoomMover.target = b.getDouble(o + 56);
+            camera.zoomMover.velocity = b.getDouble(o + 64);
+            o = get(b, o + 72, center.current);
+            o = get(b, o, center.target);
+            o = get(b, o, center.velocity);
+            get(b, o, center.acceleration);
+            if (endRead(s)) {
+                camera.alphaMover.wake();
+                camera.betaMover.wake();
+                camera.zoomMover.wake();
+                center.wake();
+                camera.resetInterpolation();
+                return s;
+            }
+        }
+    }
+
+    /**
+     * Copy the view matrix of the most recently written state into <code>dest</code>, waiting while it is being
+     * written.
+     *
+     * @param dest
+     *            will hold the view matrix
+     * @return the sequence number of the state, or <code>0</code> if no state was written yet, in which case
+     *         <code>dest</code> is not modified
+     * @throws IllegalStateException
+     *            if the state is still being written after {@link #readTimeoutMillis}
+     */
+    public long readViewMatrix(Matrix4f dest) {
+        ByteBuffer b = buffer;
+        float[] m = matrix;
+        while (true) {
+            long s = beginRead((short) 0);
+            if (s == 0L) {
+                return 0L;
+            }
+            int o = b.getShort(KIND_OFFSET) == FREE_CAMERA ? DATA_OFFSET + 8 + 19 * 4 : DATA_OFFSET + 8 + 9 * 8 + 12 * 4;
+            for (int i = 0; i < 16; i++) {
+                m[i] = b.getFloat(o + 4 * i);
+            }
+            if (endRead(s)) {
+                dest.set(m);
+                return s;
+            }
+        }
+    }
+
+    /**
+     * Wait until no state is being written and return the sequence number, or <code>0</code> if no state was
+     * written yet. A <code>kind</code> of <code>0</code> accepts any kind of camera.
+     */
+    private long beginRead(short kind) {
+        ByteBuffer b = buffer;
+        int spins = 0;
+        long waitStart = 0L;
+        while (true) {
+            long s = (long) LONGS.getAcquire(b, SEQUENCE_OFFSET);
+            if ((s & 1L) != 0L) {
+                /* Only look at the clock every few spins, since most writes finish within a few of them */
+                if ((++spins & (SPINS_PER_CLOCK_CHECK - 1)) == 0) {
+                    long now = System.nanoTime();
+                    if (spins == SPINS_PER_CLOCK_CHECK) {
+                        waitStart = now;
+                    } else if (now - waitStart > readTimeoutMillis * 1000000L) {
+                        throw new IllegalStateException("Shared state is still being written after "
+                                + readTimeoutMillis + " ms");
+                    }
+                }
+                Thread.onSpinWait();
+                continue;
+            }
+            if (s == 0L) {
+                return 0L;
+            }
+            int magic = b.getInt(MAGIC_OFFSET);
+            short k = b.getShort(KIND_OFFSET);
+            VarHandle.acquireFence();
+            if ((long) LONGS.getOpaque(b, SEQUENCE_OFFSET) != s) {
+                continue;
+            }
+            if (magic != MAGIC) {
+                throw new IllegalStateException("Not a shared camera state");
+            }
+            if (kind != 0 && k != kind) {
+                throw new IllegalStateException("Shared state is for a different kind of camera");
+            }
+            return s;
+        }
+    }
+
+    /**
+     * Return whether the values read since {@link #beginRead(short)} returned <code>sequence</code> are consistent.
+     */
+    private boolean endRead(long sequence) {
+        /* Keep the preceding reads from being reordered after the following check */
+        VarHandle.acquireFence();
+        return (long) LONGS.getOpaque(buffer, SEQUENCE_OFFSET) == sequence;
+    }
+
+    private static int put(ByteBuffer b, int o, Vector3f v) {
+        b.putFloat(o, v.x);
+        b.putFloat(o + 4, v.y);
+        b.putFloat(o + 8, v.z);
+        return o + 12;
+    }
+
+    private static int put(ByteBuffer b, int o, double current, double target, double velocity) {
+        b.putDouble(o, current);
+        b.putDouble(o + 8, target);
+        b.putDouble(o + 16, velocity);
+        return o + 24;
+    }
+
+    private int put(ByteBuffer b, int o, Matrix4f m) {
+        float[] f = m.get(matrix);
+        for (int i = 0; i < 16; i++) {
+            b.putFloat(o + 4 * i, f[i]);
+        }
+        return o + 64;
+    }
+
+    private static int get(ByteBuffer b, int o, Vector3f v) {
+        v.set(b.getFloat(o), b.getFloat(o + 4), b.getFloat(o + 8));
+        return o + 12;
+    }
+
+    /**
+     * Close the file. The region stays mapped until this object is garbage collected.
+     *
+     * @throws IOException
+     *            if the file cannot be closed
+     */
+    public void close() throws IOException {
+        file.close();
+    }
+
+}
@@ -23,16 +23,20 @@
 package org.joml.camera;
 
 import org.joml.Matrix4f;
+import org.joml.Vector3f;
 
 /**
  * A simple arcball camera, which provides smooth acceleration/velocity/elapsed-time based movement/zoom and rotation.
  * <p>
  * It makes use of the {@link Vector3Mover} to follow the {@link #center(float, float, float) center} position and
  * uses the {@link ArcRotor} for the rotation angles.
+ * <p>
+ * With an {@link #occlusion} index, the zoom is limited so that the eye stays in front of the geometry between the
+ * center and the eye.
  * 
  * @author Kai Burjack
  */
-public class ArcBallCamera {
+public class ArcBallCamera implements Camera {
 
     public Vector3Mover centerMover = new Vector3Mover();
     {
@@ -50,28 +54,153 @@ public class ArcBallCamera {
         zoomMover.maxDeceleration = 15.0f;
     }
 
+    /** The projection of this camera. */
+    public final Projection projection = new Projection();
+
+    /** If not <code>null</code>, a snapshot is published to this buffer after every {@link #update(float)}. */
+    public CameraSnapshotBuffer snapshots;
+
+    /**
+     * If not <code>null</code>, receives the {@link CameraMetrics#CAMERA_UPDATES} and
+     * {@link CameraMetrics#VIEW_MATRIX_REBUILDS} counters and the {@link CameraMetrics#CAMERA_UPDATE_NANOS} of this
+     * camera. See {@link #setMetrics(CameraMetrics)} to instrument the movers, too.
+     */
+    public CameraMetrics metrics;
+
+    /**
+     * If not <code>null</code>, every {@link #update(float)} limits the zoom to the distance of the first geometry hit
+     * by the ray from the center towards the eye. The index is only read, so it can be shared by many cameras.
+     */
+    public OcclusionIndex occlusion;
+
+    /** The distance which the eye keeps from geometry found in the {@link #occlusion} index. */
+    public float occlusionPadding = 0.1f;
+
+    /**
+     * The rates of change of alpha, beta, zoom and the center's x, y and z coordinates of the recent updates, which
+     * {@link #predict(float, Matrix4f)} extrapolates with. If <code>null</code>, which is the default, the movers'
+     * current velocities are used. Assign e.g. <code>new VelocityHistory(4, 6)</code> to smooth the prediction.
+     */
+    public VelocityHistory velocityHistory;
+
+    /* The zoom requested via zoom(double), which the occlusion stage limits zoomMover.target to */
+    private double desiredZoom = 10.0;
+
+    /* The result of the last occlusion query together with the state it was computed from */
+    private OcclusionIndex occlusionIndex;
+    private double occlusionAlpha, occlusionBeta, occlusionZoom, occlusionLimit;
+    private float occlusionCenterX, occlusionCenterY, occlusionCenterZ, occlusionPaddingUsed;
+
+    private double time;
+
+    /* The state before the last update, for interpolation */
+    private double previousAlpha, previousBeta, previousZoom;
+    private final Vector3f previousCenter = new Vector3f();
+    private boolean hasPrevious;
+    private final float[] velocitySample = new float[6];
+
+    /* The cached view matrix and its inverse together with the state they were computed from */
+    private final Matrix4f view = new Matrix4f();
+    private final Matrix4f invView = new Matrix4f();
+    private int viewVersion;
+    private boolean viewValid;
+    private double viewAlpha, viewBeta, viewZoom;
+    private float viewCenterX, viewCenterY, viewCenterZ;
+    private final CameraFrustum frustum = new CameraFrustum();
+
     /**
      * Apply the camera's view transformation to the given matrix by post-multiplying it.
+     * <p>
+     * The view transformation is cached and only recomputed when the camera moved since the last call.
      * 
      * @param mat
      *          the matrix which gets post-multiplied by the camera's view transformation matrix
      * @return the supplied matrix
      */
     public Matrix4f viewMatrix(Matrix4f mat) {
+        validateView();
+        return mat.mul(view);
+    }
+
+    /**
+     * Store the inverse of the camera's view transformation into the given matrix.
+     * 
+     * @param dest
+     *          will hold the inverse view transformation matrix
+     * @return dest
+     */
+    public Matrix4f inverseViewMatrix(Matrix4f dest) {
+        validateView();
+        return dest.set(invView);
+    }
+
+    /**
+     * Return a counter which changes whenever the view transformation changes.
+     * <p>
+     * Callers can remember this value and compare it later to find out whether anything derived from the view
+     * transformation must be recomputed.
+     * 
+     * @return the current version of the view transformation
+     */
+    public int getViewVersion() {
+        validateView();
+        return viewVersion;
+    }
+
+    public Projection getProjection() {
+        return projection;
+    }
+
+    public CameraFrustum frustum() {
+        frustum.update(this);
+        return frustum;
+    }
+
+    /**
+     * Determine whether the camera is still moving towards its target, so that subsequent calls to
+     * {@link #update(float)} will change the view transformation.
+     * 
+     * @return <code>true</code> if the camera is moving; <code>false</code> if it is at rest
+     */
+    public boolean isMoving() {
+        return !alphaMover.isSettled()
+            || !betaMover.isSettled()
+            || !zoomMover.isSettled()
+            || !centerMover.isSettled();
+    }
+
+    private void validateView() {
+        Vector3f center = centerMover.current;
+        if (viewValid && viewAlpha == alphaMover.current && viewBeta == betaMover.current && viewZoom == zoomMover.current
+                && viewCenterX == center.x && viewCenterY == center.y && viewCenterZ == center.z) {
+            return;
+        }
+        viewAlpha = alphaMover.current;
+        viewBeta = betaMover.current;
+        viewZoom = zoomMover.current;
+        viewCenterX = center.x;
+        viewCenterY = center.y;
+        viewCenterZ = center.z;
         /*
          * Explanation:
          * - First, translate the center position back to the origin, so that we can rotate about it
          * - Then, rotate first about Y and then about X (this will ensure that "right" is always parallel to the world's XZ-plane)
          * - Next, translate the camera back by its distance to the center (the radius of the arcball)
          */
-        return mat.translate(0, 0, (float) -zoomMover.current)
-                  .rotateX((float) betaMover.current)
-                  .rotateY((float) alphaMover.current)
-                  .translate(-centerMover.current.x, -centerMover.current.y, -centerMover.current.z);
+        view.translation(0, 0, (float) -viewZoom)
+            .rotateX((float) viewBeta)
+            .rotateY((float) viewAlpha)
+            .translate(-viewCenterX, -viewCenterY, -viewCenterZ)
+            .invert(invView);
+        viewValid = true;
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.VIEW_MATRIX_REBUILDS);
+        }
+        viewVersion++;
     }
 
     public void setAlpha(double alpha) {
-        alphaMover.target = alpha % (2.0 * Math.PI);
+        alphaMover.setTarget(alpha % (2.0 * Math.PI));
     }
 
     public void setBeta(double beta) {
@@ -80,7 +209,7 @@ public class ArcBallCamera {
         } else if (beta > Math.PI / 2.0) {
             beta = Math.PI / 2.0;
         }
-        betaMover.target = beta;
+        betaMover.setTarget(beta);
     }
 
     public double getAlpha() {
@@ -91,19 +220,277 @@ public class ArcBallCamera {
         return betaMover.target;
     }
 
+    /**
+     * Select the {@link Smoothing} strategy for each axis of this camera. Pass <code>null</code> for an axis to use
+     * the default maximum acceleration/deceleration integration.
+     * 
+     * @param alpha
+     *            the strategy for the rotation about the Y axis
+     * @param beta
+     *            the strategy for the rotation about the X axis
+     * @param zoom
+     *            the strategy for the zoom
+     * @param center
+     *            the strategy for the center position
+     */
+    public void setSmoothing(Smoothing alpha, Smoothing beta, Smoothing zoom, Smoothing center) {
+        alphaMover.smoothing = alpha;
+        betaMover.smoothing = beta;
+        zoomMover.smoothing = zoom;
+        centerMover.smoothing = center;
+        alphaMover.wake();
+        betaMover.wake();
+        zoomMover.wake();
+        centerMover.wake();
+    }
+
+    public double getZoom() {
+        return desiredZoom;
+    }
+
+    /*
+     * Set the requested zoom without changing the zoom mover, for CameraPlayer, which restores the movers itself
+     */
+    void setDesiredZoom(double zoom) {
+        desiredZoom = zoom;
+    }
+
+    /**
+     * Report the metrics of this camera and of all its movers to the given {@link CameraMetrics}.
+     * 
+     * @param metrics
+     *            receives the metrics, or <code>null</code> to disable them
+     */
+    public void setMetrics(CameraMetrics metrics) {
+        this.metrics = metrics;
+        alphaMover.metrics = metrics;
+        betaMover.metrics = metrics;
+        zoomMover.metrics = metrics;
+        centerMover.metrics = metrics;
+    }
+
+    /**
+     * Set the distance of the eye from the center. With an {@link #occlusion} index, the zoom mover's target is the
+     * smaller of this and the distance to the first occluder.
+     * 
+     * @param zoom
+     *            the distance of the eye from the center
+     */
     public void zoom(double zoom) {
-        zoomMover.target = zoom;
+        desiredZoom = zoom;
+        zoomMover.setTarget(zoom);
     }
 
     public void center(float x, float y, float z) {
-        centerMover.target.set(x, y, z);
+        centerMover.setTarget(x, y, z);
     }
 
     public void update(float elapsedTimeInSeconds) {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        previousAlpha = alphaMover.current;
+        previousBeta = betaMover.current;
+        previousZoom = zoomMover.current;
+        previousCenter.set(centerMover.current);
+        hasPrevious = true;
         alphaMover.update(elapsedTimeInSeconds);
         betaMover.update(elapsedTimeInSeconds);
-        zoomMover.update(elapsedTimeInSeconds);
         centerMover.update(elapsedTimeInSeconds);
+        if (occlusion != null) {
+            resolveOcclusion();
+        } else if (occlusionIndex != null) {
+            /* The index was removed, so return to the unlimited zoom */
+            occlusionIndex = null;
+            zoomMover.setTarget(desiredZoom);
+        }
+        zoomMover.update(elapsedTimeInSeconds);
+        if (occlusion != null && zoomMover.current > occlusionLimit) {
+            /* Move in immediately instead of clipping through the occluder, but move out smoothly */
+            zoomMover.current = occlusionLimit;
+            zoomMover.velocity = 0.0;
+        }
+        time += elapsedTimeInSeconds;
+        if (velocityHistory != null && elapsedTimeInSeconds > 0.0f) {
+            float[] v = velocitySample;
+            Vector3f c0 = previousCenter, c1 = centerMover.current;
+            float invDt = 1.0f / elapsedTimeInSeconds;
+            v[0] = (float) (ArcRotor.interpolate(previousAlpha, alphaMover.current, 1.0) - previousAlpha) * invDt;
+            v[1] = (float) (betaMover.current - previousBeta) * invDt;
+            v[2] = (float) (zoomMover.current - previousZoom) * invDt;
+            v[3] = (c1.x - c0.x) * invDt;
+            v[4] = (c1.y - c0.y) * invDt;
+            v[5] = (c1.z - c0.z) * invDt;
+            velocityHistory.add(elapsedTimeInSeconds, v);
+        }
+        if (snapshots != null) {
+            publish(snapshots);
+        }
+        if (metrics != null) {
+            report(start);
+        }
+    }
+
+    private void report(long start) {
+        metrics.increment(CameraMetrics.CAMERA_UPDATES);
+        metrics.record(CameraMetrics.CAMERA_UPDATE_NANOS, System.nanoTime() - start);
+    }
+
+    /**
+     * Limit the zoom mover's target to the distance at which the ray from the center towards the eye hits the
+     * {@link #occlusion} index, reusing the last result if the center, the angles and the zoom did not change.
+     */
+    private void resolveOcclusion() {
+        Vector3f center = centerMover.current;
+        double alpha = alphaMover.current, beta = betaMover.current;
+        if (occlusionIndex != occlusion || occlusionAlpha != alpha || occlusionBeta != beta
+                || occlusionZoom != desiredZoom || occlusionPaddingUsed != occlusionPadding
+                || occlusionCenterX != center.x || occlusionCenterY != center.y || occlusionCenterZ != center.z) {
+            occlusionIndex = occlusion;
+            occlusionAlpha = alpha;
+            occlusionBeta = beta;
+            occlusionZoom = desiredZoom;
+            occlusionPaddingUsed = occlusionPadding;
+            occlusionCenterX = center.x;
+            occlusionCenterY = center.y;
+            occlusionCenterZ = center.z;
+            /* The inverse of the view rotation applied to +Z, i.e. the direction from the center to the eye */
+            double cosBeta = StrictMath.cos(beta);
+            float dirX = (float) (-StrictMath.sin(alpha) * cosBeta);
+            float dirY = (float) StrictMath.sin(beta);
+            float dirZ = (float) (StrictMath.cos(alpha) * cosBeta);
+            float maxDistance = (float) desiredZoom + occlusionPadding;
+            float hit = occlusion.castRay(center.x, center.y, center.z, dirX, dirY, dirZ, maxDistance);
+            occlusionLimit = hit < maxDistance ? Math.min(desiredZoom, Math.max(0.0, hit - occlusionPadding)) : desiredZoom;
+        }
+        if (zoomMover.target != occlusionLimit) {
+            zoomMover.setTarget(occlusionLimit);
+        }
+    }
+
+    /**
+     * Forget the state before the last update, so that {@link #interpolatedViewMatrix(float, Matrix4f)} does not blend
+     * from it. Call this after setting the movers' current values directly.
+     * <p>
+     * This also clears the {@link #velocityHistory}, whose samples belong to the motion before the jump.
+     */
+    public void resetInterpolation() {
+        hasPrevious = false;
+        if (velocityHistory != null) {
+            velocityHistory.clear();
+        }
+    }
+
+    /**
+     * Apply the camera's view transformation interpolated between the state before and after the last
+     * {@link #update(float)} to the given matrix by post-multiplying it.
+     * <p>
+     * This allows to render at a higher rate than the simulation is updated at. The rotation angles are interpolated
+     * along the shortest arc, and zoom and center linearly.
+     * 
+     * @param alpha
+     *          the interpolation factor in <code>[0, 1]</code>, where <code>0</code> is the state before and
+     *          <code>1</code> the state after the last update
+     * @param mat
+     *          the matrix which gets post-multiplied by the interpolated view transformation matrix
+     * @return the supplied matrix
+     */
+    public Matrix4f interpolatedViewMatrix(float alpha, Matrix4f mat) {
+        if (!hasPrevious) {
+            return viewMatrix(mat);
+        }
+        Vector3f c0 = previousCenter, c1 = centerMover.current;
+        return mat.translate(0, 0, (float) -(previousZoom + (zoomMover.current - previousZoom) * alpha))
+                  .rotateX((float) ArcRotor.interpolate(previousBeta, betaMover.current, alpha))
+                  .rotateY((float) ArcRotor.interpolate(previousAlpha, alphaMover.current, alpha))
+                  .translate(-(c0.x + (c1.x - c0.x) * alpha),
+                             -(c0.y + (c1.y - c0.y) * alpha),
+                             -(c0.z + (c1.z - c0.z) * alpha));
+    }
+
+    /**
+     * Apply the camera's view transformation extrapolated <code>aheadSeconds</code> into the future to the given matrix
+     * by post-multiplying it, without changing the state of this camera.
+     * <p>
+     * This allows to render the frame for the time at which it will be displayed, compensating the latency between
+     * input and display. Each axis moves with the average rate of the {@link #velocityHistory}, but stops at the
+     * target of its mover, since the movers never move past their targets.
+     * 
+     * @param aheadSeconds
+     *          the time in seconds to extrapolate into the future
+     * @param mat
+     *          the matrix which gets post-multiplied by the extrapolated view transformation matrix
+     * @return the supplied matrix
+     */
+    public Matrix4f predict(float aheadSeconds, Matrix4f mat) {
+        float[] v = velocitySample;
+        if (velocityHistory == null || !velocityHistory.average(v)) {
+            v[0] = (float) alphaMover.velocity;
+            v[1] = (float) betaMover.velocity;
+            v[2] = (float) zoomMover.velocity;
+            v[3] = centerMover.velocity.x;
+            v[4] = centerMover.velocity.y;
+            v[5] = centerMover.velocity.z;
+        }
+        double alpha = alphaMover.current, beta = betaMover.current, zoom = zoomMover.current;
+        Vector3f c = centerMover.current, ct = centerMover.target;
+        alpha += extrapolate(ArcRotor.interpolate(alpha, alphaMover.target, 1.0) - alpha, v[0], aheadSeconds);
+        beta += extrapolate(betaMover.target - beta, v[1], aheadSeconds);
+        zoom += extrapolate(zoomMover.target - zoom, v[2], aheadSeconds);
+        float cx = c.x + (float) extrapolate(ct.x - c.x, v[3], aheadSeconds);
+        float cy = c.y + (float) extrapolate(ct.y - c.y, v[4], aheadSeconds);
+        float cz = c.z + (float) extrapolate(ct.z - c.z, v[5], aheadSeconds);
+        return mat.translate(0, 0, (float) -zoom)
+                  .rotateX((float) beta)
+                  .rotateY((float) alpha)
+                  .translate(-cx, -cy, -cz);
+    }
+
+    /**
+     * Return the distance covered with the given rate in the given time, but not beyond <code>remaining</code> when
+     * moving towards it.
+     */
+    private static double extrapolate(double remaining, double rate, double time) {
+        double distance = rate * time;
+        if (remaining >= 0.0 && distance > remaining && rate > 0.0
+                || remaining <= 0.0 && distance < remaining && rate < 0.0) {
+            return remaining;
+        }
+        return distance;
+    }
+
+    /**
+     * Publish the current state of this {@link ArcBallCamera} to the given buffer, unless its readers hold all
+     * snapshots.
+     * 
+     * @param buffer
+     *            the buffer to publish to
+     */
+    public void publish(CameraSnapshotBuffer buffer) {
+        validateView();
+        CameraSnapshot s = buffer.beginWrite();
+        if (s == null) {
+            return;
+        }
+        s.view.set(view);
+        s.invView.set(invView);
+        invView.getTranslation(s.position);
+        s.orientation.rotationX((float) viewBeta).rotateY((float) viewAlpha);
+        s.time = time;
+        buffer.publish();
+    }
+
+    /**
+     * Mix the state of all movers of this {@link ArcBallCamera} into the given hash.
+     * 
+     * @param hash
+     *            the hash so far
+     * @return the new hash
+     * @see StateChecksum
+     */
+    public long checksum(long hash) {
+        hash = alphaMover.checksum(hash);
+        hash = betaMover.checksum(hash);
+        hash = zoomMover.checksum(hash);
+        return centerMover.checksum(hash);
     }
 
 }
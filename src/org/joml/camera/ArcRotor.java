@@ -27,10 +27,14 @@ package org.joml.camera;
  * direction with the shortest distance on the circle.
  * <p>
  * Angles are specified in radians.
+ * <p>
+ * The integration only uses basic IEEE 754 operations, so {@link #update(float)} produces bit-identical results on
+ * every JVM. This does not hold for {@link #advance(double, double)}, which differs from stepwise updates by rounding
+ * errors.
  * 
  * @author Kai Burjack
  */
-public class ArcRotor {
+public strictfp class ArcRotor extends Mover {
 
     public double maxAcceleration = Math.toRadians(250.0f);
     public double maxDeceleration = Math.toRadians(250.0f);
@@ -38,14 +42,141 @@ public class ArcRotor {
     public double current;
     public double velocity;
 
+    /**
+     * Set the target angle and {@link #wake() wake} this mover.
+     * 
+     * @param target
+     *            the new target angle
+     */
+    public void setTarget(double target) {
+        this.target = target;
+        wake();
+    }
+
+    public boolean isSettled() {
+        return current == target && (smoothing == null || velocity == 0.0);
+    }
+
     public void update(float elapsedTimeInSeconds) {
-        if (current == target) {
+        if (smoothing != null) {
+            smooth(elapsedTimeInSeconds);
             return;
         }
+        step(elapsedTimeInSeconds);
+    }
+
+    /**
+     * Advance the simulation by as many steps of <code>fixedStep</code> seconds as fit into <code>seconds</code>, with
+     * the same result as invoking {@link #update(float)} that many times.
+     * <p>
+     * Instead of simulating each step, runs of steps with constant acceleration are computed in closed form, so the
+     * cost is logarithmic in the number of steps per acceleration phase. The result differs from stepwise updates only by
+     * the rounding error which the stepwise updates accumulate, which is in the order of <code>1E-15</code> times the
+     * distance travelled per step.
+     * <p>
+     * In order to match <code>update(float)</code> exactly, <code>fixedStep</code> should be a <code>float</code>
+     * value widened to <code>double</code>.
+     * <p>
+     * With a {@link #smoothing} strategy, all steps are computed in a single closed-form step.
+     * 
+     * @param seconds
+     *            the elapsed time in seconds
+     * @param fixedStep
+     *            the duration of a single step in seconds
+     * @return the remaining time in seconds which was too short for another step
+     */
+    public double advance(double seconds, double fixedStep) {
+        long steps = (long) (seconds / fixedStep);
+        double remaining = seconds - steps * fixedStep;
+        if (smoothing != null) {
+            if (steps > 0) {
+                smooth(steps * fixedStep);
+            }
+            return remaining;
+        }
+        while (steps > 0 && current != target) {
+            double currentToTarget = currentToTarget();
+            double sign = currentToTarget < 0.0 ? -1 : 1;
+            double u = sign * velocity, r = sign * currentToTarget;
+            long n = 0;
+            /*
+             * Moving away from the target must not cross the opposite side of the circle, because the shortest
+             * direction towards the target would flip there.
+             */
+            if (u >= 0.0 || r + (u * u) / (2.0 * maxAcceleration) - u * fixedStep < Math.PI) {
+                n = BangBang.steps(u, r, maxAcceleration, maxDeceleration, fixedStep, steps - 1);
+            }
+            if (n > 0) {
+                double a = BangBang.decelerates(u, r, maxDeceleration) ? -maxDeceleration : maxAcceleration;
+                current = (current + sign * BangBang.way(u, a, fixedStep, n) + 2.0 * Math.PI) % (2.0 * Math.PI);
+                velocity = sign * BangBang.velocity(u, a, fixedStep, n);
+            }
+            step(fixedStep);
+            steps -= n + 1;
+        }
+        return remaining;
+    }
+
+    /**
+     * Interpolate between the two given angles along the shortest arc.
+     * 
+     * @param from
+     *            the angle to interpolate from
+     * @param to
+     *            the angle to interpolate to
+     * @param alpha
+     *            the interpolation factor in <code>[0, 1]</code>
+     * @return the interpolated angle
+     */
+    public static double interpolate(double from, double to, double alpha) {
+        double delta = (to - from) % (2.0 * Math.PI);
+        if (delta > Math.PI) {
+            delta -= 2.0 * Math.PI;
+        } else if (delta < -Math.PI) {
+            delta += 2.0 * Math.PI;
+        }
+        return from + delta * alpha;
+    }
+
+    private double currentToTarget() {
         double currentToTarget = Math.PI - Math.abs((Math.abs(current - target) % (2.0 * Math.PI)) - Math.PI);
         if ((current - target + 2.0 * Math.PI) % (2.0 * Math.PI) < Math.PI) {
             currentToTarget *= -1.0f;
         }
+        return currentToTarget;
+    }
+
+    private void smooth(double elapsedTimeInSeconds) {
+        if (current == target && velocity == 0.0) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.MOVER_UPDATES);
+        }
+        double[] state = smoothingState(1);
+        /* The offset from the target along the shortest arc */
+        state[0] = -currentToTarget();
+        state[1] = velocity;
+        smoothing.step(state, 1, elapsedTimeInSeconds);
+        velocity = state[1];
+        if (state[0] == 0.0) {
+            current = target;
+        } else {
+            current = (target + state[0]) % (2.0 * Math.PI);
+            if (current < 0.0) {
+                current += 2.0 * Math.PI;
+            }
+        }
+    }
+
+    private void step(double elapsedTimeInSeconds) {
+        if (current == target) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.MOVER_UPDATES);
+        }
+        double currentToTarget = currentToTarget();
         double directStopDistance = (velocity * velocity) / (2.0f * maxDeceleration);
         double acceleration = 0.0f;
         if (velocity * currentToTarget > 0.0f && directStopDistance >= Math.abs(currentToTarget)) {
@@ -61,6 +192,9 @@ public class ArcRotor {
         double way = velocity * elapsedTimeInSeconds;
         if (velocity * currentToTarget > 0.0f && Math.abs(way) > Math.abs(currentToTarget)) {
             /* We would move too far */
+            if (metrics != null) {
+                metrics.increment(CameraMetrics.MOVER_TARGET_CLAMPS);
+            }
             velocity = 0.0f;
             current = target;
         } else {
@@ -68,4 +202,20 @@ public class ArcRotor {
         }
     }
 
+    /**
+     * Mix the state of this mover into the given hash.
+     * 
+     * @param hash
+     *            the hash so far
+     * @return the new hash
+     * @see StateChecksum
+     */
+    public long checksum(long hash) {
+        hash = StateChecksum.mix(hash, current);
+        hash = StateChecksum.mix(hash, target);
+        hash = StateChecksum.mix(hash, velocity);
+        hash = StateChecksum.mix(hash, maxAcceleration);
+        return StateChecksum.mix(hash, maxDeceleration);
+    }
+
 }
@@ -0,0 +1,172 @@
+package org.joml.camera;
+
+/**
+ * Integrates many {@link ArcRotor rotors} at once, storing their state in flat <code>double[]</code> arrays with one
+ * angle per rotor.
+ * <p>
+ * {@link #update(float)} performs the same floating-point operations as {@link ArcRotor#update(float)} without a
+ * {@link ArcRotor#smoothing smoothing} strategy, so the results are bit-identical to updating each rotor separately.
+ * <p>
+ * Like {@link ScalarMoverBatch}, the multi-release JAR contains a Vector API implementation for JDK 17 and later. It
+ * wraps angles around with a subtraction instead of <code>%</code> and therefore processes a group of rotors one after
+ * another whenever one of them is outside of <code>[0, 2&pi;)</code>, which keeps the results identical.
+ *
+ * @see ScalarMoverBatch#isVectorized()
+ */
+public class ArcRotorBatch {
+
+    /**
+     * The current angles. These will change after an invocation to {@link #update(float)}.
+     */
+    public final double[] current;
+
+    /**
+     * The desired target angles. Set these to any value at any time.
+     */
+    public final double[] target;
+
+    /**
+     * The current angular velocities. MUST NOT be modified from outside.
+     */
+    public final double[] velocity;
+
+    /**
+     * The maximum angular acceleration of each rotor.
+     */
+    public final double[] maxAcceleration;
+
+    /**
+     * The maximum angular deceleration of each rotor.
+     */
+    public final double[] maxDeceleration;
+
+    private int size;
+
+    /**
+     * Create a new, empty batch which can hold up to <code>capacity</code> rotors.
+     *
+     * @param capacity
+     *            the maximum number of rotors
+     */
+    public ArcRotorBatch(int capacity) {
+        current = new double[capacity];
+        target = new double[capacity];
+        velocity = new double[capacity];
+        maxAcceleration = new double[capacity];
+        maxDeceleration = new double[capacity];
+    }
+
+    /**
+     * @return the number of rotors in this batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the maximum number of rotors in this batch
+     */
+    public int capacity() {
+        return current.length;
+    }
+
+    /**
+     * Add a new rotor at angle zero with the same default limits as a new {@link ArcRotor}.
+     *
+     * @return the index of the new rotor
+     */
+    public int add() {
+        if (size == capacity()) {
+            throw new IllegalStateException("Batch is full");
+        }
+        int i = size++;
+        maxAcceleration[i] = Math.toRadians(250.0f);
+        maxDeceleration[i] = Math.toRadians(250.0f);
+        return i;
+    }
+
+    /**
+     * Add a new rotor whose state and limits are copied from the given {@link ArcRotor}.
+     *
+     * @param rotor
+     *            the rotor to copy
+     * @return the index of the new rotor
+     */
+    public int add(ArcRotor rotor) {
+        int i = add();
+        current[i] = rotor.current;
+        target[i] = rotor.target;
+        velocity[i] = rotor.velocity;
+        maxAcceleration[i] = rotor.maxAcceleration;
+        maxDeceleration[i] = rotor.maxDeceleration;
+        return i;
+    }
+
+    /**
+     * Update all rotors based on the elapsed time since the last update.
+     *
+     * @param elapsedTimeInSeconds
+     *            the elapsed time in seconds since the last update
+     */
+    public void update(float elapsedTimeInSeconds) {
+        update(elapsedTimeInSeconds, 0, size);
+    }
+
+    /**
+     * Update the rotors with indices in <code>[from, to)</code> based on the elapsed time since the last update.
+     * <p>
+     * Disjoint ranges may be updated concurrently from different threads.
+     *
+     * @param elapsedTimeInSeconds
+     *            the elapsed time in seconds since the last update
+     * @param from
+     *            the index of the first rotor to update
+     * @param to
+     *            the index after the last rotor to update
+     */
+    public void update(float elapsedTimeInSeconds, int from, int to) {
+        BatchKernels.update(this, elapsedTimeInSeconds, from, to);
+    }
+
+    /**
+     * Update the rotors with indices in <code>[from, to)</code> one after another. This is the reference for the
+     * vectorized implementation, which also falls back to it for the remainder of a range.
+     */
+    strictfp void updateScalar(float elapsedTimeInSeconds, int from, int to) {
+        double dt = elapsedTimeInSeconds;
+        double twoPi = 2.0 * Math.PI;
+        double[] cur = current, tgt = target, vel = velocity;
+        for (int i = from; i < to; i++) {
+            double c = cur[i], t = tgt[i];
+            if (c == t) {
+                continue;
+            }
+            /* The signed distance to the target along the shortest arc, as in ArcRotor */
+            double currentToTarget = Math.PI - Math.abs((Math.abs(c - t) % twoPi) - Math.PI);
+            if ((c - t + twoPi) % twoPi < Math.PI) {
+                currentToTarget *= -1.0f;
+            }
+            double v = vel[i];
+            double directStopDistance = (v * v) / (2.0f * maxDeceleration[i]);
+            double acceleration;
+            if (v * currentToTarget > 0.0f && directStopDistance >= Math.abs(currentToTarget)) {
+                /* Decelerate */
+                acceleration = (currentToTarget < 0.0 ? -1 : 1) * -maxDeceleration[i];
+            } else {
+                /* Accelerate */
+                acceleration = (currentToTarget < 0.0 ? -1 : 1) * maxAcceleration[i];
+            }
+            v += acceleration * dt;
+            double way = v * dt;
+            if (v * currentToTarget > 0.0f && Math.abs(way) > Math.abs(currentToTarget)) {
+                /* We would move too far */
+                vel[i] = 0.0;
+                cur[i] = t;
+            } else {
+                vel[i] = v;
+                cur[i] = (c + way + twoPi) % twoPi;
+            }
+        }
+    }
+
+}
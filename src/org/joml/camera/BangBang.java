@@ -0,0 +1,115 @@
+package org.joml.camera;
+
+/**
+ * Closed-form helpers for the accelerate/decelerate ("bang-bang") profile used by {@link ScalarMover} and
+ * {@link ArcRotor}.
+ * <p>
+ * All computations happen in a frame directed towards the target: <code>u</code> is the velocity towards the target
+ * and <code>r</code> is the (positive) remaining distance to the target. Within a phase of constant acceleration
+ * <code>a</code> and fixed step <code>h</code>, the state after <code>j</code> steps is
+ * <code>u_j = u + j*a*h</code> and <code>r_j = r - h*(j*u + a*h*j*(j+1)/2)</code>.
+ */
+final strictfp class BangBang {
+
+    private BangBang() {
+    }
+
+    /**
+     * Whether the mover decelerates in the state <code>(u, r)</code>.
+     */
+    static boolean decelerates(double u, double r, double maxDeceleration) {
+        return u > 0.0 && (u * u) / (2.0 * maxDeceleration) >= r;
+    }
+
+    /**
+     * Whether the step from state <code>j</code> would move too far and snap onto the target.
+     */
+    private static boolean snaps(double u, double r, double a, double h, long j) {
+        double u1 = velocity(u, a, h, j + 1);
+        return u1 > 0.0 && u1 * h > distance(u, r, a, h, j);
+    }
+
+    static double velocity(double u, double a, double h, long j) {
+        return u + j * a * h;
+    }
+
+    static double distance(double u, double r, double a, double h, long j) {
+        return r - way(u, a, h, j);
+    }
+
+    /**
+     * The distance travelled towards the target in <code>j</code> steps.
+     */
+    static double way(double u, double a, double h, long j) {
+        return h * (j * u + a * h * ((double) j * (j + 1) * 0.5));
+    }
+
+    /**
+     * Compute the number of steps, starting from the state <code>(u, r)</code>, which all stay in the current phase
+     * and do not snap onto the target, so that they can be applied in closed form.
+     *
+     * @return the number of steps in <code>[0, maxSteps]</code>
+     */
+    static long steps(double u, double r, double maxAcceleration, double maxDeceleration, double h, long maxSteps) {
+        if (maxSteps <= 0) {
+            return 0;
+        }
+        if (decelerates(u, r, maxDeceleration)) {
+            double a = -maxDeceleration;
+            /* The decelerate condition is linear in j and becomes false once */
+            long lo = 0, hi = maxSteps;
+            while (lo < hi) {
+                long mid = lo + (hi - lo) / 2;
+                if (decelerates(velocity(u, a, h, mid), distance(u, r, a, h, mid), maxDeceleration)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            long n = lo;
+            if (n == 0) {
+                return 0;
+            }
+            /*
+             * The snap margin u_(j+1)*h - r_j is concave in j, so the steps which snap form an interval containing
+             * the maximum of that margin, if any. Check around the maximum and search for the interval's start.
+             */
+            long peak = (long) (u / (maxDeceleration * h)) - 1;
+            long first = -1;
+            for (long j = peak - 1; j <= peak + 1 && first < 0; j++) {
+                long c = Math.max(0, Math.min(n - 1, j));
+                if (snaps(u, r, a, h, c)) {
+                    first = c;
+                }
+            }
+            if (first < 0) {
+                return n;
+            }
+            lo = 0;
+            hi = first;
+            while (lo < hi) {
+                long mid = lo + (hi - lo) / 2;
+                if (!snaps(u, r, a, h, mid)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+        double a = maxAcceleration;
+        /* Switching to deceleration and snapping are both monotonic while accelerating towards the target */
+        long lo = 0, hi = maxSteps;
+        while (lo < hi) {
+            long mid = lo + (hi - lo) / 2;
+            if (!decelerates(velocity(u, a, h, mid), distance(u, r, a, h, mid), maxDeceleration)
+                    && !snaps(u, r, a, h, mid)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+}
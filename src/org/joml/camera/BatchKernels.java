@@ -0,0 +1,24 @@
+package org.joml.camera;
+
+/**
+ * Dispatches the updates of {@link ScalarMoverBatch} and {@link ArcRotorBatch}.
+ * <p>
+ * This is the baseline implementation, which always updates one mover after another. The multi-release JAR replaces
+ * this class on JDK 17 and later with one which uses the Vector API when it is available, so the batches must only
+ * call into it and must not inline any of its results at compile time.
+ */
+class BatchKernels {
+
+    static boolean vectorized() {
+        return false;
+    }
+
+    static void update(ScalarMoverBatch batch, float elapsedTimeInSeconds, int from, int to) {
+        batch.updateScalar(elapsedTimeInSeconds, from, to);
+    }
+
+    static void update(ArcRotorBatch batch, float elapsedTimeInSeconds, int from, int to) {
+        batch.updateScalar(elapsedTimeInSeconds, from, to);
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.joml.camera;
+
+import org.joml.Matrix4f;
+
+/**
+ * A camera which provides a view transformation and a {@link Projection}.
+ */
+public interface Camera {
+
+    /**
+     * Apply the camera's view transformation to the given matrix by post-multiplying it.
+     * 
+     * @param mat
+     *          the matrix which gets post-multiplied by the camera's view transformation matrix
+     * @return the supplied matrix
+     */
+    Matrix4f viewMatrix(Matrix4f mat);
+
+    /**
+     * Store the inverse of the camera's view transformation into the given matrix.
+     * 
+     * @param dest
+     *          will hold the inverse view transformation matrix
+     * @return dest
+     */
+    Matrix4f inverseViewMatrix(Matrix4f dest);
+
+    /**
+     * Return a counter which changes whenever the view transformation changes.
+     * 
+     * @return the current version of the view transformation
+     */
+    int getViewVersion();
+
+    /**
+     * @return the projection of this camera
+     */
+    Projection getProjection();
+
+    /**
+     * Return the frustum of this camera, recomputing it only if the view transformation or the projection changed
+     * since the last call.
+     * 
+     * @return the frustum
+     */
+    CameraFrustum frustum();
+
+}
@@ -0,0 +1,104 @@
+package org.joml.camera;
+
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+
+/**
+ * Culling data derived from the view-projection matrix of a {@link Camera}.
+ * <p>
+ * The data is only recomputed by {@link #update(Camera)} when the camera's view transformation or projection changed
+ * since the last update. All fields MUST NOT be modified from outside.
+ */
+public class CameraFrustum {
+
+    /**
+     * The view-projection matrix.
+     */
+    public final Matrix4f viewProj = new Matrix4f();
+
+    /**
+     * Allows to test points, spheres and boxes against the frustum.
+     */
+    public final FrustumIntersection intersection = new FrustumIntersection();
+
+    /**
+     * The six normalized frustum planes in the order of the <code>PLANE_*</code> constants of {@link Matrix4f}, as
+     * <code>(a, b, c, d)</code> of the plane equation <code>a*x + b*y + c*z + d = 0</code>. Normals point inwards.
+     */
+    public final Vector4f[] planes = { new Vector4f(), new Vector4f(), new Vector4f(), new Vector4f(), new Vector4f(),
+            new Vector4f() };
+
+    /**
+     * The eight world-space frustum corners in the order of the <code>CORNER_*</code> constants of {@link Matrix4f}.
+     */
+    public final Vector3f[] corners = { new Vector3f(), new Vector3f(), new Vector3f(), new Vector3f(), new Vector3f(),
+            new Vector3f(), new Vector3f(), new Vector3f() };
+
+    /**
+     * The minimum corner of the world-space axis-aligned bounding box of the frustum.
+     */
+    public final Vector3f aabbMin = new Vector3f();
+
+    /**
+     * The maximum corner of the world-space axis-aligned bounding box of the frustum.
+     */
+    public final Vector3f aabbMax = new Vector3f();
+
+    /**
+     * The center of a world-space bounding sphere of the frustum.
+     */
+    public final Vector3f sphereCenter = new Vector3f();
+
+    /**
+     * The radius of a world-space bounding sphere of the frustum.
+     */
+    public float sphereRadius;
+
+    private boolean valid;
+    private int viewVersion;
+    private int projectionVersion;
+
+    /**
+     * Recompute the culling data from the given camera if its view transformation or projection changed since the last
+     * call.
+     * 
+     * @param camera
+     *            the camera
+     * @return <code>true</code> if the data was recomputed; <code>false</code> otherwise
+     */
+    public boolean update(Camera camera) {
+        int viewVersion = camera.getViewVersion();
+        Projection projection = camera.getProjection();
+        int projectionVersion = projection.getVersion();
+        if (valid && viewVersion == this.viewVersion && projectionVersion == this.projectionVersion) {
+            return false;
+        }
+        camera.viewMatrix(projection.projectionMatrix(viewProj.identity()));
+        intersection.set(viewProj);
+        for (int i = 0; i < planes.length; i++) {
+            viewProj.frustumPlane(i, planes[i]);
+        }
+        aabbMin.set(Float.POSITIVE_INFINITY);
+        aabbMax.set(Float.NEGATIVE_INFINITY);
+        sphereCenter.zero();
+        for (int i = 0; i < corners.length; i++) {
+            Vector3f corner = viewProj.frustumCorner(i, corners[i]);
+            aabbMin.min(corner);
+            aabbMax.max(corner);
+            sphereCenter.add(corner);
+        }
+        sphereCenter.mul(1.0f / corners.length);
+        float radiusSquared = 0.0f;
+        for (int i = 0; i < corners.length; i++) {
+            radiusSquared = Math.max(radiusSquared, sphereCenter.distanceSquared(corners[i]));
+        }
+        sphereRadius = (float) Math.sqrt(radiusSquared);
+        this.viewVersion = viewVersion;
+        this.projectionVersion = projectionVersion;
+        valid = true;
+        return true;
+    }
+
+}
@@ -0,0 +1,356 @@
+package org.joml.camera;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.joml.Matrix4f;
+
+/**
+ * Updates many independent {@link Camera cameras} and writes their view matrices into one contiguous
+ * {@link FloatBuffer}, splitting the work into chunks which run in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * The view matrix of the camera with index <code>i</code> is stored in column-major order at the 16 floats starting at
+ * index <code>16 * i</code> of {@link #getMatrices()}, ready for an instanced upload.
+ * <p>
+ * {@link #update(float)} updates every {@link FreeCamera} and {@link ArcBallCamera} in the group. Other {@link Camera}
+ * implementations only have their view matrices written. The tasks, the matrix buffer and the helper matrices are all
+ * allocated when cameras are added or the chunk size changes, so that updating the group allocates nothing.
+ * <p>
+ * The group may also be updated from within a task of its pool. The calling worker then processes the first chunk
+ * itself and helps with the others while joining them, instead of blocking.
+ * <p>
+ * Every camera must be added to the group at most once, and the cameras must not be modified by other threads while
+ * the group updates them. The group itself is not thread-safe.
+ */
+public class CameraGroup {
+
+    private final ForkJoinPool pool;
+    private Camera[] cameras;
+    private int size;
+    private FloatBuffer matrices;
+    private int chunkSize = 64;
+
+    /* The preallocated tasks, rebuilt whenever the number of chunks changes */
+    private Chunk[] chunks = new Chunk[0];
+    private boolean chunksValid;
+    private final Root root = new Root();
+    private final Matrix4f tmp = new Matrix4f();
+
+    /* The parameters of the current run */
+    private boolean updating;
+    private float elapsedTimeInSeconds;
+
+    /**
+     * Create a new, empty {@link CameraGroup} which runs on the common {@link ForkJoinPool}.
+     *
+     * @param capacity
+     *          the initial number of cameras to reserve space for
+     */
+    public CameraGroup(int capacity) {
+        this(ForkJoinPool.commonPool(), capacity);
+    }
+
+    /**
+     * Create a new, empty {@link CameraGroup} which runs on the given {@link ForkJoinPool}.
+     *
+     * @param pool
+     *          the pool to run the chunks on
+     * @param capacity
+     *          the initial number of cameras to reserve space for
+     */
+    public CameraGroup(ForkJoinPool pool, int capacity) {
+        this.pool = pool;
+        this.cameras = new Camera[Math.max(capacity, 1)];
+        this.matrices = newMatrices(cameras.length);
+    }
+
+    private static FloatBuffer newMatrices(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * 16 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * @return the number of cameras in this group
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the camera with the given index.
+     *
+     * @param index
+     *          the index of the camera
+     * @return the camera
+     */
+    public Camera get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index);
+        }
+        return cameras[index];
+    }
+
+    /**
+     * Add the given camera to this group.
+     * <p>
+     * If the group is full, its capacity is doubled, which replaces the buffer returned by {@link #getMatrices()}.
+     *
+     * @param camera
+     *          the camera to add
+     * @return the index of the camera and of its view matrix
+     */
+    public int add(Camera camera) {
+        if (camera == null) {
+            throw new IllegalArgumentException("camera must not be null");
+        }
+        if (size == cameras.length) {
+            Camera[] newCameras = new Camera[cameras.length * 2];
+            System.arraycopy(cameras, 0, newCameras, 0, size);
+            cameras = newCameras;
+            FloatBuffer newMatrices = newMatrices(newCameras.length);
+            matrices.clear();
+            newMatrices.put(matrices);
+            matrices = newMatrices;
+        }
+        cameras[size] = camera;
+        chunksValid = false;
+        return size++;
+    }
+
+    /**
+     * Remove the camera with the given index from this group.
+     * <p>
+     * The cameras after it move down by one index, so that the order of the remaining cameras is retained. Their view
+     * matrices are only moved with the next {@link #update(float)} or {@link #updateViewMatrices()}.
+     *
+     * @param index
+     *          the index of the camera to remove
+     * @return the removed camera
+     */
+    public Camera remove(int index) {
+        Camera camera = get(index);
+        System.arraycopy(cameras, index + 1, cameras, index, size - index - 1);
+        cameras[--size] = null;
+        chunksValid = false;
+        return camera;
+    }
+
+    /**
+     * @return the maximum number of cameras processed by a single task
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Set the maximum number of cameras processed by a single task.
+     * <p>
+     * Smaller chunks balance the load better across threads, while larger chunks have less scheduling overhead. If
+     * all cameras fit into a single chunk, the group is processed on the calling thread.
+     *
+     * @param chunkSize
+     *          the number of cameras per chunk
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+        chunksValid = false;
+    }
+
+    /**
+     * Return the buffer holding the view matrices of all cameras, with its position set to <code>0</code> and its
+     * limit to <code>16 * size()</code>.
+     *
+     * @return the matrix buffer
+     */
+    public FloatBuffer getMatrices() {
+        matrices.limit(16 * size);
+        matrices.position(0);
+        return matrices;
+    }
+
+    /**
+     * Update all cameras based on the elapsed time since the last update and write their new view matrices.
+     *
+     * @param elapsedTimeInSeconds
+     *          the elapsed time in seconds since the last update
+     */
+    public void update(float elapsedTimeInSeconds) {
+        run(true, elapsedTimeInSeconds);
+    }
+
+    /**
+     * Write the view matrices of all cameras without updating them.
+     */
+    public void updateViewMatrices() {
+        run(false, 0.0f);
+    }
+
+    private void run(boolean updating, float elapsedTimeInSeconds) {
+        this.updating = updating;
+        this.elapsedTimeInSeconds = elapsedTimeInSeconds;
+        validateChunks();
+        if (chunks.length <= 1 || pool.getParallelism() <= 1) {
+            process(0, size, tmp);
+            return;
+        }
+        root.reinitialize();
+        root.done = false;
+        if (ForkJoinTask.getPool() == pool) {
+            /* Called from a task of the same pool, so process the chunks here and let the joins help with the work */
+            root.invoke();
+        } else {
+            /*
+             * Not ForkJoinPool.invoke(), which allocates a node for every thread waiting for the task. The blocker lets
+             * the pool compensate if this is a worker of another pool.
+             */
+            pool.execute(root);
+            boolean interrupted = false;
+            while (!root.isReleasable()) {
+                try {
+                    ForkJoinPool.managedBlock(root);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            /*
+             * The root signals before its worker marks it as completed, and reinitializing it earlier would let that
+             * worker complete the next run before it started.
+             */
+            while (!root.isDone()) {
+                Thread.yield();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Throwable t = root.failure;
+        root.failure = null;
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    private void validateChunks() {
+        if (chunksValid) {
+            return;
+        }
+        int numChunks = (size + chunkSize - 1) / chunkSize;
+        if (chunks.length != numChunks) {
+            Chunk[] newChunks = new Chunk[numChunks];
+            System.arraycopy(chunks, 0, newChunks, 0, Math.min(chunks.length, numChunks));
+            for (int i = chunks.length; i < numChunks; i++) {
+                newChunks[i] = new Chunk();
+            }
+            chunks = newChunks;
+        }
+        for (int i = 0; i < numChunks; i++) {
+            chunks[i].from = i * chunkSize;
+            chunks[i].to = Math.min(size, (i + 1) * chunkSize);
+        }
+        chunksValid = true;
+    }
+
+    private void process(int from, int to, Matrix4f tmp) {
+        Camera[] cameras = this.cameras;
+        FloatBuffer matrices = this.matrices;
+        float dt = elapsedTimeInSeconds;
+        for (int i = from; i < to; i++) {
+            Camera c = cameras[i];
+            if (updating) {
+                if (c instanceof FreeCamera) {
+                    ((FreeCamera) c).update(dt);
+                } else if (c instanceof ArcBallCamera) {
+                    ((ArcBallCamera) c).update(dt);
+                }
+            }
+            c.viewMatrix(tmp.identity()).get(16 * i, matrices);
+        }
+    }
+
+    /**
+     * Forks all chunks but the first, processes the first one itself and then joins the others.
+     * <p>
+     * All forked chunks are joined before this completes, even if a chunk failed, because they still access the
+     * cameras and the matrix buffer. The first exception is kept in {@link #failure} for the thread which started the
+     * update, which waits for {@link #done} as a {@link ForkJoinPool.ManagedBlocker}.
+     */
+    private class Root extends RecursiveAction implements ForkJoinPool.ManagedBlocker {
+        private static final long serialVersionUID = 1L;
+        private final Object lock = new Object();
+        boolean done;
+        Throwable failure;
+
+        protected void compute() {
+            Throwable t = null;
+            try {
+                processChunks();
+            } catch (Throwable e) {
+                t = e;
+            }
+            synchronized (lock) {
+                failure = t;
+                done = true;
+                lock.notifyAll();
+            }
+        }
+
+        public boolean block() throws InterruptedException {
+            synchronized (lock) {
+                while (!done) {
+                    lock.wait();
+                }
+            }
+            return true;
+        }
+
+        public boolean isReleasable() {
+            synchronized (lock) {
+                return done;
+            }
+        }
+
+        private void processChunks() {
+            Chunk[] chunks = CameraGroup.this.chunks;
+            int firstForked = chunks.length;
+            try {
+                for (int i = chunks.length - 1; i > 0; i--) {
+                    chunks[i].reinitialize();
+                    chunks[i].fork();
+                    firstForked = i;
+                }
+                chunks[0].compute();
+            } finally {
+                for (int i = firstForked; i < chunks.length; i++) {
+                    chunks[i].quietlyJoin();
+                }
+            }
+            for (int i = 1; i < chunks.length; i++) {
+                if (chunks[i].isCompletedAbnormally()) {
+                    /* Rethrows the exception of the chunk */
+                    chunks[i].join();
+                }
+            }
+        }
+    }
+
+    private class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        int from, to;
+        private final Matrix4f tmp = new Matrix4f();
+
+        protected void compute() {
+            process(from, to, tmp);
+        }
+    }
+
+}
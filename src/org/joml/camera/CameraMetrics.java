@@ -0,0 +1,60 @@
+package org.joml.camera;
+
+/**
+ * Receives counters and measurements from the camera classes, for monitoring what they do in production.
+ * <p>
+ * The movers, the cameras, {@link MoverScheduler} and {@link OrthoCameraControl} report to the implementation held in
+ * their <code>metrics</code> field. The field is <code>null</code> by default, which disables instrumentation at the
+ * cost of a single branch, and time is only measured when it is set. Implementations are called from the threads
+ * updating the cameras and must therefore be thread-safe and fast.
+ *
+ * @see StripedCameraMetrics
+ */
+public interface CameraMetrics {
+
+    /** Counter of updates of movers which were not settled. */
+    int MOVER_UPDATES = 0;
+
+    /** Counter of mover updates which would have moved past the target and were clamped to it instead. */
+    int MOVER_TARGET_CLAMPS = 1;
+
+    /** Counter of {@link FreeCamera} and {@link ArcBallCamera} updates. */
+    int CAMERA_UPDATES = 2;
+
+    /** Counter of recomputations of the cached view matrices of {@link FreeCamera} and {@link ArcBallCamera}. */
+    int VIEW_MATRIX_REBUILDS = 3;
+
+    /** Counter of rebuilds of the view-projection matrices of {@link OrthoCameraControl}. */
+    int ORTHO_MATRIX_REBUILDS = 4;
+
+    /** The number of counters. */
+    int COUNTERS = 5;
+
+    /** Histogram of the duration of {@link FreeCamera} and {@link ArcBallCamera} updates in nanoseconds. */
+    int CAMERA_UPDATE_NANOS = 0;
+
+    /** Histogram of the number of active movers of a {@link MoverScheduler} per update. */
+    int ACTIVE_MOVERS = 1;
+
+    /** The number of histograms. */
+    int HISTOGRAMS = 2;
+
+    /**
+     * Increment the given counter by one.
+     *
+     * @param counter
+     *            one of the counter constants, such as {@link #MOVER_UPDATES}
+     */
+    void increment(int counter);
+
+    /**
+     * Record a value in the given histogram.
+     *
+     * @param histogram
+     *            one of the histogram constants, such as {@link #CAMERA_UPDATE_NANOS}
+     * @param value
+     *            the value to record
+     */
+    void record(int histogram, long value);
+
+}
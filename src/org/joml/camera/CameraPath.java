@@ -0,0 +1,596 @@
+package org.joml.camera;
+
+import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+
+/**
+ * A path for cinematic and fly-through cameras, made of cubic Catmull-Rom, Bezier and Hermite segments for the
+ * position and optional orientations at the knots between them, which are interpolated via squad.
+ * <p>
+ * A path is built by starting at a knot with {@link #moveTo(float, float, float) moveTo} and appending segments which
+ * each end at a new knot, followed by {@link #build()}. Building converts all segments into the same polynomial form
+ * and computes a table which maps the distance along the path to the curve parameter, so that the path is sampled by
+ * distance in constant time and without allocation, and the camera moves at the same speed on every segment.
+ * <p>
+ * Once built, a path is immutable and can be sampled by any number of threads concurrently.
+ */
+public class CameraPath {
+
+    /** The number of samples per segment which {@link #build()} measures the arc length with. */
+    public static final int DEFAULT_SAMPLES_PER_SEGMENT = 32;
+
+    private static final byte CATMULL_ROM = 0;
+    private static final byte BEZIER = 1;
+    private static final byte HERMITE = 2;
+
+    /* The orientation when feeding an ArcBallCamera, per thread so that sampling stays thread-safe */
+    private static final ThreadLocal ROTATION = new ThreadLocal() {
+        protected Object initialValue() {
+            return new Quaternionf();
+        }
+    };
+
+    /* The knots, three floats each */
+    private float[] knots = new float[3 * 8];
+    private int knotCount;
+    /* The orientations at the knots, four floats each */
+    private float[] orientations = new float[4 * 8];
+    private boolean[] oriented = new boolean[8];
+    private int orientedCount;
+    /* The kind of each segment and two control vectors, i.e. the Bezier control points or the Hermite tangents */
+    private byte[] kinds = new byte[8];
+    private float[] controls = new float[6 * 8];
+
+    private boolean built;
+    /* Per segment and axis the coefficients a, b, c, d of ((a * t + b) * t + c) * t + d */
+    private float[] coefficients;
+    /* The squad control quaternions at the knots, four floats each */
+    private float[] inner;
+    /* The curve parameter (segment index plus t) at equidistant distances along the path */
+    private float[] table;
+    /* The distance of each knot from the start of the path */
+    private float[] knotDistances;
+    private float length;
+
+    /**
+     * Start the path at the given knot.
+     *
+     * @param x
+     *            the x coordinate of the first knot
+     * @param y
+     *            the y coordinate of the first knot
+     * @param z
+     *            the z coordinate of the first knot
+     * @return this
+     */
+    public CameraPath moveTo(float x, float y, float z) {
+        if (knotCount != 0) {
+            throw new IllegalStateException("moveTo must be the first call");
+        }
+        addKnot(x, y, z);
+        return this;
+    }
+
+    /**
+     * Append a Catmull-Rom segment ending at the given knot. Its tangents are derived from the neighboring knots.
+     *
+     * @param x
+     *            the x coordinate of the end knot
+     * @param y
+     *            the y coordinate of the end knot
+     * @param z
+     *            the z coordinate of the end knot
+     * @return this
+     */
+    public CameraPath catmullRomTo(float x, float y, float z) {
+        addSegment(CATMULL_ROM, 0, 0, 0, 0, 0, 0);
+        addKnot(x, y, z);
+        return this;
+    }
+
+    /**
+     * Append a cubic Bezier segment with the given control points ending at the given knot.
+     *
+     * @param c1x
+     *            the x coordinate of the first control point
+     * @param c1y
+     *            the y coordinate of the first control point
+     * @param c1z
+     *            the z coordinate of the first control point
+     * @param c2x
+     *            the x coordinate of the second control point
+     * @param c2y
+     *            the y coordinate of the second control point
+     * @param c2z
+     *            the z coordinate of the second control point
+     * @param x
+     *            the x coordinate of the end knot
+     * @param y
+     *            the y coordinate of the end knot
+     * @param z
+     *            the z coordinate of the end knot
+     * @return this
+     */
+    public CameraPath bezierTo(float c1x, float c1y, float c1z, float c2x, float c2y, float c2z, float x, float y, float z) {
+        addSegment(BEZIER, c1x, c1y, c1z, c2x, c2y, c2z);
+        addKnot(x, y, z);
+        return this;
+    }
+
+    /**
+     * Append a cubic Hermite segment with the given tangents ending at the given knot. The tangents are the
+     * derivatives with respect to the segment's parameter in <code>[0, 1]</code>.
+     *
+     * @param t0x
+     *            the x coordinate of the tangent at the start knot
+     * @param t0y
+     *            the y coordinate of the tangent at the start knot
+     * @param t0z
+     *            the z coordinate of the tangent at the start knot
+     * @param t1x
+     *            the x coordinate of the tangent at the end knot
+     * @param t1y
+     *            the y coordinate of the tangent at the end knot
+     * @param t1z
+     *            the z coordinate of the tangent at the end knot
+     * @param x
+     *            the x coordinate of the end knot
+     * @param y
+     *            the y coordinate of the end knot
+     * @param z
+     *            the z coordinate of the end knot
+     * @return this
+     */
+    public CameraPath hermiteTo(float t0x, float t0y, float t0z, float t1x, float t1y, float t1z, float x, float y, float z) {
+        addSegment(HERMITE, t0x, t0y, t0z, t1x, t1y, t1z);
+        addKnot(x, y, z);
+        return this;
+    }
+
+    /**
+     * Set the orientation of the camera at the most recently added knot, in the same convention as
+     * {@link FreeCamera#rotation}, i.e. the rotation from world space into view space.
+     * <p>
+     * Either all knots or no knot must have an orientation. Without orientations, the camera looks along the path.
+     *
+     * @param rotation
+     *            the orientation at the last knot
+     * @return this
+     */
+    public CameraPath orient(Quaternionfc rotation) {
+        if (knotCount == 0) {
+            throw new IllegalStateException("No knot to orient");
+        }
+        checkNotBuilt();
+        int k = knotCount - 1;
+        orientations[4 * k] = rotation.x();
+        orientations[4 * k + 1] = rotation.y();
+        orientations[4 * k + 2] = rotation.z();
+        orientations[4 * k + 3] = rotation.w();
+        if (!oriented[k]) {
+            oriented[k] = true;
+            orientedCount++;
+        }
+        return this;
+    }
+
+    private void checkNotBuilt() {
+        if (built) {
+            throw new IllegalStateException("Path is already built");
+        }
+    }
+
+    private void addKnot(float x, float y, float z) {
+        checkNotBuilt();
+        if (3 * knotCount == knots.length) {
+            float[] newKnots = new float[2 * knots.length];
+            System.arraycopy(knots, 0, newKnots, 0, knots.length);
+            knots = newKnots;
+            float[] newOrientations = new float[2 * orientations.length];
+            System.arraycopy(orientations, 0, newOrientations, 0, orientations.length);
+            orientations = newOrientations;
+            boolean[] newOriented = new boolean[2 * oriented.length];
+            System.arraycopy(oriented, 0, newOriented, 0, oriented.length);
+            oriented = newOriented;
+        }
+        knots[3 * knotCount] = x;
+        knots[3 * knotCount + 1] = y;
+        knots[3 * knotCount + 2] = z;
+        knotCount++;
+    }
+
+    private void addSegment(byte kind, float ax, float ay, float az, float bx, float by, float bz) {
+        if (knotCount == 0) {
+            throw new IllegalStateException("moveTo must be the first call");
+        }
+        checkNotBuilt();
+        int s = knotCount - 1;
+        if (s == kinds.length) {
+            byte[] newKinds = new byte[2 * kinds.length];
+            System.arraycopy(kinds, 0, newKinds, 0, kinds.length);
+            kinds = newKinds;
+            float[] newControls = new float[2 * controls.length];
+            System.arraycopy(controls, 0, newControls, 0, controls.length);
+            controls = newControls;
+        }
+        kinds[s] = kind;
+        float[] c = controls;
+        c[6 * s] = ax;
+        c[6 * s + 1] = ay;
+        c[6 * s + 2] = az;
+        c[6 * s + 3] = bx;
+        c[6 * s + 4] = by;
+        c[6 * s + 5] = bz;
+    }
+
+    /**
+     * Build the path with {@value #DEFAULT_SAMPLES_PER_SEGMENT} samples per segment.
+     *
+     * @return this
+     */
+    public CameraPath build() {
+        return build(DEFAULT_SAMPLES_PER_SEGMENT);
+    }
+
+    /**
+     * Convert all segments into polynomial form and compute the arc-length table, which holds
+     * <code>samplesPerSegment</code> entries per segment.
+     * <p>
+     * After this, no more segments can be added.
+     *
+     * @param samplesPerSegment
+     *            the number of samples per segment to measure the arc length with. More samples increase the accuracy
+     *            of the speed along strongly curved segments
+     * @return this
+     */
+    public CameraPath build(int samplesPerSegment) {
+        checkNotBuilt();
+        int segments = knotCount - 1;
+        if (segments < 1) {
+            throw new IllegalStateException("Path needs at least one segment");
+        }
+        if (orientedCount != 0 && orientedCount != knotCount) {
+            throw new IllegalStateException("Either all knots or no knot must have an orientation");
+        }
+        if (samplesPerSegment < 1) {
+            throw new IllegalArgumentException("samplesPerSegment must be positive");
+        }
+        coefficients = new float[12 * segments];
+        for (int s = 0; s < segments; s++) {
+            for (int axis = 0; axis < 3; axis++) {
+                toPolynomial(s, axis);
+            }
+        }
+        if (orientedCount != 0) {
+            buildInner();
+        }
+        buildTable(segments, samplesPerSegment);
+        built = true;
+        return this;
+    }
+
+    private void toPolynomial(int s, int axis) {
+        float[] k = knots;
+        float p0 = k[3 * s + axis], p1 = k[3 * s + 3 + axis];
+        float c0 = controls[6 * s + axis], c1 = controls[6 * s + 3 + axis];
+        float a, b, c;
+        if (kinds[s] == BEZIER) {
+            a = -p0 + 3.0f * c0 - 3.0f * c1 + p1;
+            b = 3.0f * p0 - 6.0f * c0 + 3.0f * c1;
+            c = -3.0f * p0 + 3.0f * c0;
+        } else {
+            float m0, m1;
+            if (kinds[s] == HERMITE) {
+                m0 = c0;
+                m1 = c1;
+            } else {
+                /* Catmull-Rom tangents from the neighboring knots, one-sided at the ends of the path */
+                m0 = s > 0 ? 0.5f * (p1 - k[3 * s - 3 + axis]) : p1 - p0;
+                m1 = s + 2 < knotCount ? 0.5f * (k[3 * s + 6 + axis] - p0) : p1 - p0;
+            }
+            a = 2.0f * p0 - 2.0f * p1 + m0 + m1;
+            b = -3.0f * p0 + 3.0f * p1 - 2.0f * m0 - m1;
+            c = m0;
+        }
+        int o = 12 * s + 4 * axis;
+        coefficients[o] = a;
+        coefficients[o + 1] = b;
+        coefficients[o + 2] = c;
+        coefficients[o + 3] = p0;
+    }
+
+    /**
+     * Compute the squad control quaternion of every knot, after flipping the orientations into the same hemisphere
+     * as their predecessors so that every segment rotates along the shorter arc.
+     */
+    private void buildInner() {
+        float[] q = orientations;
+        for (int i = 1; i < knotCount; i++) {
+            int o = 4 * i;
+            if (q[o - 4] * q[o] + q[o - 3] * q[o + 1] + q[o - 2] * q[o + 2] + q[o - 1] * q[o + 3] < 0.0f) {
+                q[o] = -q[o];
+                q[o + 1] = -q[o + 1];
+                q[o + 2] = -q[o + 2];
+                q[o + 3] = -q[o + 3];
+            }
+        }
+        inner = new float[4 * knotCount];
+        Quaternionf qi = new Quaternionf(), inv = new Quaternionf(), d = new Quaternionf();
+        for (int i = 0; i < knotCount; i++) {
+            int o = 4 * i;
+            qi.set(q[o], q[o + 1], q[o + 2], q[o + 3]).normalize();
+            if (i > 0 && i < knotCount - 1) {
+                /* s_i = q_i * exp(-(log(q_i^-1 * q_i+1) + log(q_i^-1 * q_i-1)) / 4) */
+                qi.invert(inv);
+                float lx = 0.0f, ly = 0.0f, lz = 0.0f;
+                for (int n = -1; n <= 1; n += 2) {
+                    int on = o + 4 * n;
+                    inv.mul(d.set(q[on], q[on + 1], q[on + 2], q[on + 3]).normalize(), d);
+                    float vl = (float) Math.sqrt(d.x * d.x + d.y * d.y + d.z * d.z);
+                    if (vl > 1E-7f) {
+                        float angle = (float) Math.atan2(vl, d.w) / vl;
+                        lx += d.x * angle;
+                        ly += d.y * angle;
+                        lz += d.z * angle;
+                    }
+                }
+                lx *= -0.25f;
+                ly *= -0.25f;
+                lz *= -0.25f;
+                float el = (float) Math.sqrt(lx * lx + ly * ly + lz * lz);
+                float sinc = el > 1E-7f ? (float) Math.sin(el) / el : 1.0f;
+                qi.mul(d.set(lx * sinc, ly * sinc, lz * sinc, (float) Math.cos(el)));
+            }
+            inner[o] = qi.x;
+            inner[o + 1] = qi.y;
+            inner[o + 2] = qi.z;
+            inner[o + 3] = qi.w;
+        }
+    }
+
+    /**
+     * Measure the arc length of all segments with polylines and invert it into the table of curve parameters at
+     * equidistant distances.
+     */
+    private void buildTable(int segments, int samplesPerSegment) {
+        int samples = segments * samplesPerSegment;
+        double[] cumulative = new double[samples + 1];
+        float px = evaluate(0, 0, 0.0f), py = evaluate(0, 1, 0.0f), pz = evaluate(0, 2, 0.0f);
+        for (int i = 1; i <= samples; i++) {
+            int s = Math.min((i - 1) / samplesPerSegment, segments - 1);
+            float t = (float) (i - s * samplesPerSegment) / samplesPerSegment;
+            float x = evaluate(s, 0, t), y = evaluate(s, 1, t), z = evaluate(s, 2, t);
+            double dx = x - px, dy = y - py, dz = z - pz;
+            cumulative[i] = cumulative[i - 1] + Math.sqrt(dx * dx + dy * dy + dz * dz);
+            px = x;
+            py = y;
+            pz = z;
+        }
+        double total = cumulative[samples];
+        length = (float) total;
+        knotDistances = new float[segments + 1];
+        for (int s = 0; s <= segments; s++) {
+            knotDistances[s] = (float) cumulative[s * samplesPerSegment];
+        }
+        table = new float[samples + 1];
+        int j = 0;
+        for (int k = 0; k <= samples; k++) {
+            double d = total * k / samples;
+            while (j < samples - 1 && cumulative[j + 1] < d) {
+                j++;
+            }
+            double span = cumulative[j + 1] - cumulative[j];
+            double f = span > 0.0 ? Math.min(1.0, Math.max(0.0, (d - cumulative[j]) / span)) : 0.0;
+            table[k] = (float) ((j + f) / samplesPerSegment);
+        }
+        table[samples] = segments;
+    }
+
+    private float evaluate(int s, int axis, float t) {
+        int o = 12 * s + 4 * axis;
+        float[] c = coefficients;
+        return ((c[o] * t + c[o + 1]) * t + c[o + 2]) * t + c[o + 3];
+    }
+
+    private float derivative(int s, int axis, float t) {
+        int o = 12 * s + 4 * axis;
+        float[] c = coefficients;
+        return (3.0f * c[o] * t + 2.0f * c[o + 1]) * t + c[o + 2];
+    }
+
+    private void checkBuilt() {
+        if (!built) {
+            throw new IllegalStateException("Path is not built");
+        }
+    }
+
+    /**
+     * @return the length of the path
+     */
+    public float length() {
+        checkBuilt();
+        return length;
+    }
+
+    /**
+     * Return the curve parameter, i.e. the segment index plus the parameter within that segment, at the given
+     * distance along the path.
+     */
+    private float parameter(float distance) {
+        float[] tab = table;
+        int last = tab.length - 1;
+        if (!(distance > 0.0f) || length == 0.0f) {
+            return 0.0f;
+        }
+        if (distance >= length) {
+            return tab[last];
+        }
+        float f = distance / length * last;
+        int k = Math.min((int) f, last - 1);
+        float u0 = tab[k], u1 = tab[k + 1];
+        int knot = (int) u0 + 1;
+        if (knot < u1 && knot + 1 >= u1) {
+            /*
+             * The entry spans a knot, where the speed along the curve parameter changes abruptly, so interpolate on
+             * either side of the knot separately
+             */
+            float step = length / last;
+            float d0 = k * step, dk = knotDistances[knot];
+            if (distance < dk) {
+                return dk > d0 ? u0 + (knot - u0) * (distance - d0) / (dk - d0) : knot;
+            }
+            float d1 = d0 + step;
+            return d1 > dk ? knot + (u1 - knot) * (distance - dk) / (d1 - dk) : knot;
+        }
+        return u0 + (u1 - u0) * (f - k);
+    }
+
+    private int segment(float u) {
+        return Math.min((int) u, knotCount - 2);
+    }
+
+    /**
+     * Compute the position at the given distance along the path.
+     *
+     * @param distance
+     *            the distance from the start of the path, clamped to <code>[0, {@link #length()}]</code>
+     * @param dest
+     *            will hold the position
+     * @return dest
+     */
+    public Vector3f position(float distance, Vector3f dest) {
+        checkBuilt();
+        float u = parameter(distance);
+        int s = segment(u);
+        float t = u - s;
+        return dest.set(evaluate(s, 0, t), evaluate(s, 1, t), evaluate(s, 2, t));
+    }
+
+    /**
+     * Compute the normalized direction of travel at the given distance along the path.
+     *
+     * @param distance
+     *            the distance from the start of the path, clamped to <code>[0, {@link #length()}]</code>
+     * @param dest
+     *            will hold the direction
+     * @return dest
+     */
+    public Vector3f direction(float distance, Vector3f dest) {
+        checkBuilt();
+        float u = parameter(distance);
+        int s = segment(u);
+        float t = u - s;
+        dest.set(derivative(s, 0, t), derivative(s, 1, t), derivative(s, 2, t));
+        float l = dest.length();
+        return l > 0.0f ? dest.mul(1.0f / l) : dest.set(0.0f, 0.0f, -1.0f);
+    }
+
+    /**
+     * Compute the orientation at the given distance along the path, in the same convention as
+     * {@link FreeCamera#rotation}.
+     * <p>
+     * With orientations at the knots, these are interpolated via squad, which is smooth across the knots. Otherwise,
+     * the orientation looks along the {@link #direction(float, Vector3f) direction} of the path with the Y axis up.
+     *
+     * @param distance
+     *            the distance from the start of the path, clamped to <code>[0, {@link #length()}]</code>
+     * @param dest
+     *            will hold the orientation
+     * @return dest
+     */
+    public Quaternionf rotation(float distance, Quaternionf dest) {
+        checkBuilt();
+        float u = parameter(distance);
+        int s = segment(u);
+        float t = u - s;
+        if (inner == null) {
+            float dx = derivative(s, 0, t), dy = derivative(s, 1, t), dz = derivative(s, 2, t);
+            if (dx == 0.0f && dy == 0.0f && dz == 0.0f) {
+                return dest.identity();
+            }
+            return dest.identity().lookAlong(dx, dy, dz, 0.0f, 1.0f, 0.0f);
+        }
+        /* squad(q_s, q_s+1, s_s, s_s+1, t) = slerp(slerp(q_s, q_s+1, t), slerp(s_s, s_s+1, t), 2t(1-t)) */
+        float[] q = inner;
+        int o = 4 * s;
+        slerp(q[o], q[o + 1], q[o + 2], q[o + 3], q[o + 4], q[o + 5], q[o + 6], q[o + 7], t, dest);
+        float sx = dest.x, sy = dest.y, sz = dest.z, sw = dest.w;
+        q = orientations;
+        slerp(q[o], q[o + 1], q[o + 2], q[o + 3], q[o + 4], q[o + 5], q[o + 6], q[o + 7], t, dest);
+        return slerp(dest.x, dest.y, dest.z, dest.w, sx, sy, sz, sw, 2.0f * t * (1.0f - t), dest).normalize();
+    }
+
+    private static Quaternionf slerp(float ax, float ay, float az, float aw, float bx, float by, float bz, float bw,
+            float t, Quaternionf dest) {
+        float cos = ax * bx + ay * by + az * bz + aw * bw;
+        float sign = 1.0f;
+        if (cos < 0.0f) {
+            cos = -cos;
+            sign = -1.0f;
+        }
+        float wa, wb;
+        if (cos < 0.9995f) {
+            float angle = (float) Math.acos(cos);
+            float invSin = 1.0f / (float) Math.sin(angle);
+            wa = (float) Math.sin((1.0f - t) * angle) * invSin;
+            wb = (float) Math.sin(t * angle) * invSin * sign;
+        } else {
+            /* Nearly parallel, so interpolate linearly */
+            wa = 1.0f - t;
+            wb = t * sign;
+        }
+        return dest.set(wa * ax + wb * bx, wa * ay + wb * by, wa * az + wb * bz, wa * aw + wb * bw);
+    }
+
+    /**
+     * Set the {@link FreeCamera#position position} and {@link FreeCamera#rotation rotation} of the given camera to the
+     * state at the given distance along the path.
+     *
+     * @param distance
+     *            the distance from the start of the path, clamped to <code>[0, {@link #length()}]</code>
+     * @param camera
+     *            the camera to move
+     */
+    public void apply(float distance, FreeCamera camera) {
+        position(distance, camera.position);
+        rotation(distance, camera.rotation);
+    }
+
+    /**
+     * Set the targets of the given camera to the state at the given distance along the path, so that its movers
+     * follow the path smoothly: the center follows the position, and the rotation angles follow the orientation.
+     *
+     * @param distance
+     *            the distance from the start of the path, clamped to <code>[0, {@link #length()}]</code>
+     * @param camera
+     *            the camera to move
+     */
+    public void apply(float distance, ArcBallCamera camera) {
+        apply(distance, camera.centerMover);
+        Quaternionf q = rotation(distance, (Quaternionf) ROTATION.get());
+        /*
+         * The arcball rotation is rotateX(beta).rotateY(alpha), whose first row (cos(alpha), 0, sin(alpha)) does not
+         * depend on beta, so alpha covers the full circle, while beta is limited to [-pi/2, pi/2] like setBeta()
+         */
+        float qx = q.x, qy = q.y, qz = q.z, qw = q.w;
+        double alpha = Math.atan2(2.0 * (qx * qz + qw * qy), 1.0 - 2.0 * (qy * qy + qz * qz));
+        double beta = Math.asin(Math.max(-1.0, Math.min(1.0, 2.0 * (qy * qz + qw * qx))));
+        camera.setAlpha(alpha < 0.0 ? alpha + 2.0 * Math.PI : alpha);
+        camera.setBeta(beta);
+    }
+
+    /**
+     * Set the target of the given mover to the position at the given distance along the path.
+     *
+     * @param distance
+     *            the distance from the start of the path, clamped to <code>[0, {@link #length()}]</code>
+     * @param mover
+     *            the mover whose target to set
+     */
+    public void apply(float distance, Vector3Mover mover) {
+        position(distance, mover.target);
+        mover.wake();
+    }
+
+}
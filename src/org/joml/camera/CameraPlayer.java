@@ -0,0 +1,185 @@
+package org.joml.camera;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.joml.Vector3f;
+
+/**
+ * Plays back a file written by {@link CameraRecorder}.
+ * <p>
+ * All records have the same size and are sorted by time, so every record is a keyframe and {@link #seek(double)}
+ * finds the record for any timestamp with a binary search directly in the memory-mapped file. Reading a record does
+ * not allocate.
+ */
+public class CameraPlayer {
+
+    private final MappedByteBuffer buffer;
+    private final short kind;
+    private final int recordSize;
+    private final int count;
+
+    /**
+     * Open the given recording.
+     *
+     * @param file
+     *            the file written by a {@link CameraRecorder}
+     * @throws IOException
+     *            if the file cannot be read or is not a valid recording
+     */
+    public CameraPlayer(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() < CameraRecorder.HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a camera recording: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            raf.close();
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != CameraRecorder.MAGIC) {
+            throw new IOException("Not a camera recording: " + file);
+        }
+        short version = buffer.getShort(4);
+        if (version != CameraRecorder.VERSION) {
+            throw new IOException("Unsupported camera recording version: " + version);
+        }
+        kind = buffer.getShort(CameraRecorder.KIND_OFFSET);
+        recordSize = buffer.getInt(CameraRecorder.RECORD_SIZE_OFFSET);
+        count = buffer.getInt(CameraRecorder.COUNT_OFFSET);
+        if (count > 0 && (recordSize <= 0
+                || CameraRecorder.HEADER_SIZE + (long) count * recordSize > buffer.capacity())) {
+            throw new IOException("Truncated camera recording: " + file);
+        }
+    }
+
+    /**
+     * @return the number of records
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Return the time of the record with the given index.
+     *
+     * @param index
+     *            the index of the record
+     * @return the time of the record
+     */
+    public double getTime(int index) {
+        return buffer.getDouble(offset(index));
+    }
+
+    private int offset(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index);
+        }
+        return CameraRecorder.HEADER_SIZE + index * recordSize;
+    }
+
+    /**
+     * Find the last record whose time is not greater than the given time.
+     * <p>
+     * If the given time lies before the first record, the first record is returned.
+     *
+     * @param time
+     *            the time to seek to
+     * @return the index of the record
+     */
+    public int seek(double time) {
+        if (count == 0) {
+            throw new IllegalStateException("Recording is empty");
+        }
+        int lo = 0, hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (getTime(mid) <= time) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Set the state of the given {@link FreeCamera} to the record with the given index.
+     *
+     * @param index
+     *            the index of the record
+     * @param camera
+     *            will hold the recorded state
+     * @return the time of the record
+     */
+    public double read(int index, FreeCamera camera) {
+        int o = offset(index);
+        checkKind(CameraRecorder.FREE_CAMERA);
+        MappedByteBuffer b = buffer;
+        double time = b.getDouble(o);
+        o = get(b, o + 8, camera.position);
+        camera.rotation.set(CameraRecorder.dequantize(b.getShort(o)),
+                            CameraRecorder.dequantize(b.getShort(o + 2)),
+                            CameraRecorder.dequantize(b.getShort(o + 4)),
+                            CameraRecorder.dequantize(b.getShort(o + 6))).normalize();
+        o = get(b, o + 8, camera.linearVel);
+        get(b, o, camera.angularVel);
+        camera.resetInterpolation();
+        return time;
+    }
+
+    /**
+     * Set the state of the given {@link ArcBallCamera} to the record with the given index.
+     *
+     * @param index
+     *            the index of the record
+     * @param camera
+     *            will hold the recorded state
+     * @return the time of the record
+     */
+    public double read(int index, ArcBallCamera camera) {
+        int o = offset(index);
+        checkKind(CameraRecorder.ARC_BALL_CAMERA);
+        MappedByteBuffer b = buffer;
+        double time = b.getDouble(o);
+        o += 8;
+        camera.alphaMover.current = b.getFloat(o);
+        camera.alphaMover.target = b.getFloat(o + 4);
+        camera.alphaMover.velocity = b.getFloat(o + 8);
+        camera.betaMover.current = b.getFloat(o + 12);
+        camera.betaMover.target = b.getFloat(o + 16);
+        camera.betaMover.velocity = b.getFloat(o + 20);
+        camera.zoomMover.current = b.getFloat(o + 24);
+        camera.zoomMover.target = b.getFloat(o + 28);
+        camera.zoomMover.velocity = b.getFloat(o + 32);
+        Vector3Mover center = camera.centerMover;
+        o = get(b, o + 36, center.current);
+        o = get(b, o, center.target);
+        o = get(b, o, center.velocity);
+        camera.setDesiredZoom(b.getFloat(o));
+        camera.alphaMover.wake();
+        camera.betaMover.wake();
+        camera.zoomMover.wake();
+        center.wake();
+        camera.resetInterpolation();
+        return time;
+    }
+
+    private void checkKind(short kind) {
+        if (this.kind != kind) {
+            throw new IllegalStateException("Recording is for a different kind of camera");
+        }
+    }
+
+    private static int get(MappedByteBuffer b, int o, Vector3f dest) {
+        dest.set(b.getFloat(o), b.getFloat(o + 4), b.getFloat(o + 8));
+        return o + 12;
+    }
+
+}
@@ -0,0 +1,212 @@
+package org.joml.camera;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Records the motion of a {@link FreeCamera} or an {@link ArcBallCamera} into a compact binary file which can be
+ * played back with {@link CameraPlayer}.
+ * <p>
+ * The file starts with a {@value #HEADER_SIZE} byte header followed by fixed-size little-endian records in the order
+ * they were recorded. A {@link FreeCamera} record holds the time, the position, the rotation quantized to four signed
+ * 16-bit components and the linear and angular velocities. An {@link ArcBallCamera} record holds the time, the
+ * current value, target and velocity of all four movers and the zoom requested via
+ * {@link ArcBallCamera#zoom(double)}, with the angles and the zoom narrowed to <code>float</code>.
+ * <p>
+ * The records are written into a memory-mapped region of the file, which grows by doubling, so that recording a
+ * frame does not allocate and does not perform any system call. The file may therefore be larger than the recorded
+ * data until it is {@link #close() closed}, and the record count in the header always determines where the data
+ * ends.
+ * <p>
+ * All records of a file must be for the same kind of camera, and their times must not decrease.
+ */
+public class CameraRecorder {
+
+    static final int MAGIC = 0x4d41434a; // "JCAM" in little-endian
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int KIND_OFFSET = 6;
+    static final int RECORD_SIZE_OFFSET = 8;
+    static final int COUNT_OFFSET = 16;
+
+    static final short FREE_CAMERA = 1;
+    static final short ARC_BALL_CAMERA = 2;
+    static final int FREE_CAMERA_RECORD_SIZE = 8 + 3 * 4 + 4 * 2 + 3 * 4 + 3 * 4;
+    static final int ARC_BALL_CAMERA_RECORD_SIZE = 8 + 3 * 3 * 4 + 3 * 3 * 4 + 4;
+
+    private static final float QUANTIZATION_SCALE = Short.MAX_VALUE;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private short kind;
+    private int recordSize;
+    private int count;
+    private double lastTime = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Create a new {@link CameraRecorder} which writes to the given file, replacing its previous contents.
+     *
+     * @param file
+     *            the file to record to
+     * @param initialCapacity
+     *            the number of records to reserve space for initially
+     * @throws IOException
+     *            if the file cannot be opened or mapped
+     */
+    public CameraRecorder(File file, int initialCapacity) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        this.channel = this.file.getChannel();
+        channel.truncate(0);
+        map(HEADER_SIZE + (long) Math.max(initialCapacity, 1) * ARC_BALL_CAMERA_RECORD_SIZE);
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+    }
+
+    private void map(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Recording exceeds " + Integer.MAX_VALUE + " bytes");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return the number of records written so far
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Record the current state of the given {@link FreeCamera}.
+     *
+     * @param camera
+     *            the camera to record
+     * @param time
+     *            the time of the record, which must not be smaller than the time of the previous record
+     * @throws IOException
+     *            if the file cannot be grown
+     */
+    public void record(FreeCamera camera, double time) throws IOException {
+        int o = begin(FREE_CAMERA, FREE_CAMERA_RECORD_SIZE, time);
+        MappedByteBuffer b = buffer;
+        b.putDouble(o, time);
+        o = put(b, o + 8, camera.position);
+        Quaternionf q = camera.rotation;
+        b.putShort(o, quantize(q.x));
+        b.putShort(o + 2, quantize(q.y));
+        b.putShort(o + 4, quantize(q.z));
+        b.putShort(o + 6, quantize(q.w));
+        o = put(b, o + 8, camera.linearVel);
+        put(b, o, camera.angularVel);
+        end();
+    }
+
+    /**
+     * Record the current state of the given {@link ArcBallCamera}.
+     *
+     * @param camera
+     *            the camera to record
+     * @param time
+     *            the time of the record, which must not be smaller than the time of the previous record
+     * @throws IOException
+     *            if the file cannot be grown
+     */
+    public void record(ArcBallCamera camera, double time) throws IOException {
+        int o = begin(ARC_BALL_CAMERA, ARC_BALL_CAMERA_RECORD_SIZE, time);
+        MappedByteBuffer b = buffer;
+        b.putDouble(o, time);
+        o = put(b, o + 8, camera.alphaMover.current, camera.alphaMover.target, camera.alphaMover.velocity);
+        o = put(b, o, camera.betaMover.current, camera.betaMover.target, camera.betaMover.velocity);
+        o = put(b, o, camera.zoomMover.current, camera.zoomMover.target, camera.zoomMover.velocity);
+        Vector3Mover center = camera.centerMover;
+        o = put(b, o, center.current);
+        o = put(b, o, center.target);
+        o = put(b, o, center.velocity);
+        b.putFloat(o, (float) camera.getZoom());
+        end();
+    }
+
+    private int begin(short kind, int recordSize, double time) throws IOException {
+        if (this.kind == 0) {
+            this.kind = kind;
+            this.recordSize = recordSize;
+            buffer.putShort(KIND_OFFSET, kind);
+            buffer.putInt(RECORD_SIZE_OFFSET, recordSize);
+        } else if (this.kind != kind) {
+            throw new IllegalStateException("Cannot record different kinds of cameras into the same file");
+        }
+        if (time < lastTime) {
+            throw new IllegalArgumentException("time must not decrease");
+        }
+        lastTime = time;
+        long offset = HEADER_SIZE + (long) count * recordSize;
+        if (offset + recordSize > buffer.capacity()) {
+            map(Math.max(offset + recordSize, 2L * buffer.capacity()));
+        }
+        return (int) offset;
+    }
+
+    private void end() {
+        buffer.putInt(COUNT_OFFSET, ++count);
+    }
+
+    private static int put(MappedByteBuffer b, int o, Vector3f v) {
+        b.putFloat(o, v.x);
+        b.putFloat(o + 4, v.y);
+        b.putFloat(o + 8, v.z);
+        return o + 12;
+    }
+
+    private static int put(MappedByteBuffer b, int o, double current, double target, double velocity) {
+        b.putFloat(o, (float) current);
+        b.putFloat(o + 4, (float) target);
+        b.putFloat(o + 8, (float) velocity);
+        return o + 12;
+    }
+
+    private static short quantize(float v) {
+        return (short) Math.round(Math.max(-1.0f, Math.min(1.0f, v)) * QUANTIZATION_SCALE);
+    }
+
+    static float dequantize(short v) {
+        return v / QUANTIZATION_SCALE;
+    }
+
+    /**
+     * Write all records to the storage device.
+     */
+    public void flush() {
+        buffer.force();
+    }
+
+    /**
+     * Write all records to the storage device, cut off the unused space after the last record where the platform
+     * allows it and close the file.
+     * <p>
+     * The file stays mapped until the buffer is garbage collected, and some platforms, like Windows, cannot truncate a
+     * mapped file. The file then keeps its unused space, which {@link CameraPlayer} ignores.
+     *
+     * @throws IOException
+     *            if the file cannot be closed
+     */
+    public void close() throws IOException {
+        buffer.force();
+        try {
+            channel.truncate(HEADER_SIZE + (long) count * recordSize);
+        } catch (IOException e) {
+            /* The file is still mapped, so leave it at its mapped size */
+        } finally {
+            file.close();
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.joml.camera;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * The state of a camera at a single point in simulation time, as published via a {@link CameraSnapshotBuffer}.
+ * <p>
+ * Snapshots obtained from a {@link CameraSnapshotBuffer} MUST NOT be modified by readers.
+ */
+public class CameraSnapshot {
+
+    /**
+     * The view transformation matrix.
+     */
+    public final Matrix4f view = new Matrix4f();
+
+    /**
+     * The inverse of {@link #view}.
+     */
+    public final Matrix4f invView = new Matrix4f();
+
+    /**
+     * The world-space position of the camera.
+     */
+    public final Vector3f position = new Vector3f();
+
+    /**
+     * The rotation from world space into view space.
+     */
+    public final Quaternionf orientation = new Quaternionf();
+
+    /**
+     * The simulation time in seconds, i.e. the sum of all elapsed times the camera was updated with.
+     */
+    public double time;
+
+    /** Value of {@link #readers} while the snapshot is being written. */
+    static final int WRITING = -1;
+
+    /**
+     * The number of readers which acquired this snapshot, or {@link #WRITING} while it is being written.
+     */
+    final AtomicInteger readers = new AtomicInteger();
+
+    /**
+     * Copy the state of the given snapshot into this.
+     * 
+     * @param src
+     *            the snapshot to copy
+     * @return this
+     */
+    public CameraSnapshot set(CameraSnapshot src) {
+        view.set(src.view);
+        invView.set(src.invView);
+        position.set(src.position);
+        orientation.set(src.orientation);
+        time = src.time;
+        return this;
+    }
+
+}
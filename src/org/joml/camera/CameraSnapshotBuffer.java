@@ -0,0 +1,113 @@
+package org.joml.camera;
+
+/**
+ * Publishes {@link CameraSnapshot snapshots} of a camera from a single writer thread to any number of reader threads
+ * without locks and without allocating.
+ * <p>
+ * The buffer holds a fixed number of snapshots, three by default. The writer fills a snapshot which is neither the
+ * latest one nor currently acquired by a reader, and then makes it the latest one. Readers {@link #acquire() acquire}
+ * the latest snapshot, which the writer will not modify until it is {@link #release(CameraSnapshot) released} again,
+ * or {@link #read(CameraSnapshot) copy} it.
+ * <p>
+ * If readers hold all snapshots but the latest one, the writer skips publishing. With <code>n</code> readers, a
+ * buffer of <code>n + 2</code> snapshots guarantees that every snapshot gets published.
+ */
+public class CameraSnapshotBuffer {
+
+    private final CameraSnapshot[] snapshots;
+    private CameraSnapshot writing;
+    private volatile CameraSnapshot latest;
+
+    /**
+     * Create a new {@link CameraSnapshotBuffer} holding three snapshots.
+     */
+    public CameraSnapshotBuffer() {
+        this(3);
+    }
+
+    /**
+     * Create a new {@link CameraSnapshotBuffer} holding the given number of snapshots.
+     * 
+     * @param size
+     *            the number of snapshots. Must be at least 2
+     */
+    public CameraSnapshotBuffer(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("size must be at least 2");
+        }
+        snapshots = new CameraSnapshot[size];
+        for (int i = 0; i < size; i++) {
+            snapshots[i] = new CameraSnapshot();
+        }
+        latest = snapshots[0];
+    }
+
+    /**
+     * Begin writing the next snapshot. Only the writer thread may call this method, followed by {@link #publish()} if
+     * it returned a snapshot.
+     * 
+     * @return the snapshot to write into, or <code>null</code> if readers currently hold all other snapshots
+     */
+    public CameraSnapshot beginWrite() {
+        CameraSnapshot l = latest;
+        for (int i = 0; i < snapshots.length; i++) {
+            CameraSnapshot s = snapshots[i];
+            if (s != l && s.readers.compareAndSet(0, CameraSnapshot.WRITING)) {
+                writing = s;
+                return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Publish the snapshot returned by the last call to {@link #beginWrite()}.
+     */
+    public void publish() {
+        CameraSnapshot s = writing;
+        writing = null;
+        s.readers.set(0);
+        latest = s;
+    }
+
+    /**
+     * Acquire the most recently published snapshot. It stays unchanged until it is released via
+     * {@link #release(CameraSnapshot)}.
+     * 
+     * @return the latest snapshot
+     */
+    public CameraSnapshot acquire() {
+        while (true) {
+            CameraSnapshot s = latest;
+            int readers = s.readers.get();
+            if (readers >= 0 && s.readers.compareAndSet(readers, readers + 1)) {
+                return s;
+            }
+        }
+    }
+
+    /**
+     * Release a snapshot previously returned by {@link #acquire()}.
+     * 
+     * @param snapshot
+     *            the snapshot to release
+     */
+    public void release(CameraSnapshot snapshot) {
+        snapshot.readers.decrementAndGet();
+    }
+
+    /**
+     * Copy the most recently published snapshot into <code>dest</code>.
+     * 
+     * @param dest
+     *            will hold the latest snapshot
+     * @return dest
+     */
+    public CameraSnapshot read(CameraSnapshot dest) {
+        CameraSnapshot s = acquire();
+        dest.set(s);
+        release(s);
+        return dest;
+    }
+
+}
@@ -0,0 +1,381 @@
+package org.joml.camera;
+
+import java.nio.FloatBuffer;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+/**
+ * Computes the split distances and light view-projection matrices of cascaded shadow maps for the view frustum of a
+ * {@link Camera} and a directional light.
+ * <p>
+ * The split distances blend a logarithmic and a uniform distribution between the near plane and the far plane (or
+ * {@link #setMaxDistance(float) maxDistance}). Each cascade is bounded by the smallest sphere around its slice of the
+ * frustum whose center lies on the viewing axis, so its extent does not change while the camera moves or rotates. The
+ * center of the sphere is snapped to whole shadow map texels in light space, which keeps the shadow edges from
+ * shimmering.
+ * <p>
+ * {@link #update()} only recomputes what depends on inputs that changed since the last update, using the
+ * {@link Camera#getViewVersion() view version} and the {@link Projection#getVersion() projection version}:
+ * <ul>
+ * <li>the split distances and spheres only after the projection or the split settings changed,
+ * <li>the center of each sphere after the view changed, with a single transformation instead of unprojecting the
+ * corners of the slice, and
+ * <li>the matrix of a cascade only if its snapped center moved by at least one texel, or the light or the spheres
+ * changed.
+ * </ul>
+ * The returned bit mask tells which cascades changed, so that the shadow maps of the others need not be rendered
+ * again. Updates do not allocate, and the results are written into caller-provided matrices, arrays and buffers.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class CascadedShadowMaps {
+
+    /** The maximum number of cascades, which is limited by the bit mask returned by {@link #update()}. */
+    public static final int MAX_CASCADES = 16;
+
+    private final Camera camera;
+    private final int cascadeCount;
+
+    private float splitLambda = 0.75f;
+    private float maxDistance;
+    private int shadowMapSize = 2048;
+    private float casterDistance;
+    private final Vector3f lightDirection = new Vector3f(0, -1, 0);
+
+    /* Set by the setters to force recomputing the splits or the light matrices */
+    private boolean splitsChanged;
+    private boolean lightChanged;
+
+    private boolean valid;
+    private int viewVersion;
+    private int projectionVersion;
+
+    /* The split distances, and the distance of each sphere's center along the viewing axis and its radius */
+    private final float[] splits;
+    private final float[] centerDistance;
+    private final float[] radius;
+    /* The sphere centers in light space in units of texels */
+    private final long[] snapX, snapY, snapZ;
+    private final Matrix4f[] lightViewProj;
+
+    private final Matrix4f lightView = new Matrix4f();
+    private final Matrix4f invView = new Matrix4f();
+    private final Vector3f center = new Vector3f();
+
+    /**
+     * Create cascaded shadow maps for the view frustum of the given camera.
+     *
+     * @param camera
+     *            the camera whose view frustum to cover
+     * @param cascadeCount
+     *            the number of cascades in <code>[1, {@value #MAX_CASCADES}]</code>
+     */
+    public CascadedShadowMaps(Camera camera, int cascadeCount) {
+        if (cascadeCount < 1 || cascadeCount > MAX_CASCADES) {
+            throw new IllegalArgumentException("cascadeCount must be in [1, " + MAX_CASCADES + "]");
+        }
+        this.camera = camera;
+        this.cascadeCount = cascadeCount;
+        splits = new float[cascadeCount + 1];
+        centerDistance = new float[cascadeCount];
+        radius = new float[cascadeCount];
+        snapX = new long[cascadeCount];
+        snapY = new long[cascadeCount];
+        snapZ = new long[cascadeCount];
+        lightViewProj = new Matrix4f[cascadeCount];
+        for (int i = 0; i < cascadeCount; i++) {
+            lightViewProj[i] = new Matrix4f();
+        }
+        lightView.setLookAlong(lightDirection.x, lightDirection.y, lightDirection.z, 0, 0, 1);
+    }
+
+    /**
+     * @return the number of cascades
+     */
+    public int cascadeCount() {
+        return cascadeCount;
+    }
+
+    /**
+     * Set how the split distances are distributed, from <code>0</code> for uniform to <code>1</code> for logarithmic
+     * distances. The default is <code>0.75</code>.
+     *
+     * @param splitLambda
+     *            the weight of the logarithmic distribution in <code>[0, 1]</code>
+     * @return this
+     */
+    public CascadedShadowMaps setSplitLambda(float splitLambda) {
+        if (!(splitLambda >= 0.0f && splitLambda <= 1.0f)) {
+            throw new IllegalArgumentException("splitLambda must be in [0, 1]");
+        }
+        if (this.splitLambda != splitLambda) {
+            this.splitLambda = splitLambda;
+            splitsChanged = true;
+        }
+        return this;
+    }
+
+    /**
+     * Limit the distance covered by the last cascade to less than the camera's far plane.
+     *
+     * @param maxDistance
+     *            the maximum distance from the camera, or <code>0</code> to use the far plane, which is the default.
+     *            Distances outside of the camera's near and far planes are ignored.
+     * @return this
+     */
+    public CascadedShadowMaps setMaxDistance(float maxDistance) {
+        if (!(maxDistance >= 0.0f)) {
+            throw new IllegalArgumentException("maxDistance must not be negative");
+        }
+        if (this.maxDistance != maxDistance) {
+            this.maxDistance = maxDistance;
+            splitsChanged = true;
+        }
+        return this;
+    }
+
+    /**
+     * Set the width and height of each shadow map in texels, to which the sphere centers are snapped. The default is
+     * <code>2048</code>.
+     *
+     * @param shadowMapSize
+     *            the size of the shadow maps in texels
+     * @return this
+     */
+    public CascadedShadowMaps setShadowMapSize(int shadowMapSize) {
+        if (shadowMapSize < 2) {
+            throw new IllegalArgumentException("shadowMapSize must be at least 2");
+        }
+        if (this.shadowMapSize != shadowMapSize) {
+            this.shadowMapSize = shadowMapSize;
+            lightChanged = true;
+        }
+        return this;
+    }
+
+    /**
+     * Extend the depth range of each cascade towards the light, so that objects outside of the view frustum still
+     * cast shadows into it. The default is <code>0</code>.
+     *
+     * @param casterDistance
+     *            the distance to extend the depth range by
+     * @return this
+     */
+    public CascadedShadowMaps setCasterDistance(float casterDistance) {
+        if (!(casterDistance >= 0.0f)) {
+            throw new IllegalArgumentException("casterDistance must not be negative");
+        }
+        if (this.casterDistance != casterDistance) {
+            this.casterDistance = casterDistance;
+            lightChanged = true;
+        }
+        return this;
+    }
+
+    /**
+     * Set the direction in which the light travels. The default is straight down.
+     *
+     * @param x
+     *            the x coordinate of the direction
+     * @param y
+     *            the y coordinate of the direction
+     * @param z
+     *            the z coordinate of the direction
+     * @return this
+     */
+    public CascadedShadowMaps setLightDirection(float x, float y, float z) {
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        if (!(length > 0.0f)) {
+            throw new IllegalArgumentException("light direction must not be zero");
+        }
+        x /= length;
+        y /= length;
+        z /= length;
+        if (lightDirection.x != x || lightDirection.y != y || lightDirection.z != z) {
+            lightDirection.set(x, y, z);
+            /* Any up vector not parallel to the direction will do, since the matrices are only used for depth */
+            if (Math.abs(y) < 0.99f) {
+                lightView.setLookAlong(x, y, z, 0, 1, 0);
+            } else {
+                lightView.setLookAlong(x, y, z, 0, 0, 1);
+            }
+            lightChanged = true;
+        }
+        return this;
+    }
+
+    /**
+     * Recompute the cascades whose inputs changed since the last update.
+     *
+     * @return a bit mask with bit <code>i</code> set if the split distances or the light view-projection matrix of
+     *         cascade <code>i</code> changed
+     */
+    public int update() {
+        int viewVersion = camera.getViewVersion();
+        Projection projection = camera.getProjection();
+        int projectionVersion = projection.getVersion();
+        boolean viewChanged = !valid || viewVersion != this.viewVersion;
+        boolean sphereChanged = !valid || splitsChanged || projectionVersion != this.projectionVersion;
+        if (!viewChanged && !sphereChanged && !lightChanged) {
+            return 0;
+        }
+        int changed = sphereChanged ? updateSpheres(projection) : 0;
+        camera.inverseViewMatrix(invView);
+        int texels = shadowMapSize - 1;
+        for (int i = 0; i < cascadeCount; i++) {
+            int bit = 1 << i;
+            invView.transformPosition(center.set(0, 0, -centerDistance[i]));
+            lightView.transformPosition(center);
+            /*
+             * One texel less than the size of the shadow map spans the diameter, so the extra texel covers the rounding
+             * of the center
+             */
+            double texel = 2.0 * radius[i] / texels;
+            long x = Math.round(center.x / texel), y = Math.round(center.y / texel), z = Math.round(center.z / texel);
+            if ((changed & bit) == 0 && !lightChanged && x == snapX[i] && y == snapY[i] && z == snapZ[i]) {
+                continue;
+            }
+            snapX[i] = x;
+            snapY[i] = y;
+            snapZ[i] = z;
+            float cx = (float) (x * texel), cy = (float) (y * texel), cz = (float) (z * texel);
+            float extent = (float) (0.5 * shadowMapSize * texel);
+            lightViewProj[i].setOrtho(cx - extent, cx + extent, cy - extent, cy + extent,
+                                      -cz - extent - casterDistance, -cz + extent)
+                            .mul(lightView);
+            changed |= bit;
+        }
+        this.viewVersion = viewVersion;
+        this.projectionVersion = projectionVersion;
+        splitsChanged = false;
+        lightChanged = false;
+        valid = true;
+        return changed;
+    }
+
+    /**
+     * Recompute the split distances and the bounding sphere of each cascade in view space.
+     *
+     * @return a bit mask of the cascades whose split distances or sphere changed
+     */
+    private int updateSpheres(Projection projection) {
+        float near = projection.getNear();
+        float far = projection.getFar();
+        if (maxDistance > 0.0f && maxDistance > near && maxDistance < far) {
+            far = maxDistance;
+        }
+        int changed = 0;
+        for (int i = 0; i <= cascadeCount; i++) {
+            float split;
+            if (i == 0) {
+                split = near;
+            } else if (i == cascadeCount) {
+                split = far;
+            } else {
+                double f = (double) i / cascadeCount;
+                double logarithmic = near * Math.pow(far / near, f);
+                double uniform = near + (far - near) * f;
+                split = (float) (splitLambda * logarithmic + (1.0 - splitLambda) * uniform);
+            }
+            if (!valid || split != splits[i]) {
+                splits[i] = split;
+                /* Both adjacent cascades end at this split */
+                changed |= (3 << i >>> 1) & ((1 << cascadeCount) - 1);
+            }
+        }
+        /*
+         * The corners of the slice [n, f] have the squared distance k^2 * d^2 from the viewing axis at depth d. The
+         * center which is equally far from the near and the far corners is at (n + f) * (1 + k^2) / 2, unless that is
+         * beyond the far plane, in which case the far corners alone determine the sphere.
+         */
+        double tanY = Math.tan(0.5 * projection.getFovy()), tanX = tanY * projection.getAspect();
+        double k2 = tanX * tanX + tanY * tanY;
+        for (int i = 0; i < cascadeCount; i++) {
+            double n = splits[i], f = splits[i + 1];
+            double c = Math.min(0.5 * (n + f) * (1.0 + k2), f);
+            float distance = (float) c;
+            float r = (float) Math.sqrt(f * f * k2 + (f - c) * (f - c));
+            if (!valid || distance != centerDistance[i] || r != radius[i]) {
+                centerDistance[i] = distance;
+                radius[i] = r;
+                changed |= 1 << i;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Return the distance from the camera at which a cascade ends. Cascade <code>i</code> covers the distances from
+     * <code>split(i)</code> to <code>split(i + 1)</code>, where <code>split(0)</code> is the near plane.
+     *
+     * @param i
+     *            the index in <code>[0, {@link #cascadeCount()}]</code>
+     * @return the split distance
+     */
+    public float split(int i) {
+        return splits[i];
+    }
+
+    /**
+     * Store the {@link #cascadeCount()} + 1 split distances into <code>dest</code>.
+     *
+     * @param dest
+     *            will hold the split distances
+     * @param offset
+     *            the index of the first split distance in <code>dest</code>
+     * @return dest
+     * @see #split(int)
+     */
+    public float[] splits(float[] dest, int offset) {
+        System.arraycopy(splits, 0, dest, offset, splits.length);
+        return dest;
+    }
+
+    /**
+     * Store the light view-projection matrix of the given cascade into <code>dest</code>.
+     *
+     * @param cascade
+     *            the index of the cascade
+     * @param dest
+     *            will hold the matrix
+     * @return dest
+     */
+    public Matrix4f lightViewProj(int cascade, Matrix4f dest) {
+        return dest.set(lightViewProj[cascade]);
+    }
+
+    /**
+     * Store the light view-projection matrices of all cascades one after another in column-major order into
+     * <code>dest</code>.
+     *
+     * @param dest
+     *            will hold <code>16 * {@link #cascadeCount()}</code> values
+     * @param offset
+     *            the index of the first value in <code>dest</code>
+     * @return dest
+     */
+    public float[] lightViewProj(float[] dest, int offset) {
+        for (int i = 0; i < cascadeCount; i++) {
+            lightViewProj[i].get(dest, offset + 16 * i);
+        }
+        return dest;
+    }
+
+    /**
+     * Store the light view-projection matrices of all cascades one after another in column-major order into
+     * <code>dest</code>, starting at its current position. The position of the buffer is not changed.
+     *
+     * @param dest
+     *            will hold <code>16 * {@link #cascadeCount()}</code> values
+     * @return dest
+     */
+    public FloatBuffer lightViewProj(FloatBuffer dest) {
+        int position = dest.position();
+        for (int i = 0; i < cascadeCount; i++) {
+            lightViewProj[i].get(position + 16 * i, dest);
+        }
+        return dest;
+    }
+
+}
@@ -0,0 +1,40 @@
+package org.joml.camera;
+
+/**
+ * Moves towards the target like a critically damped spring, i.e. as fast as possible without overshooting when
+ * starting at rest.
+ * <p>
+ * Velocity is retained when the target changes, so a target which moves every frame is followed smoothly without
+ * oscillation.
+ */
+public strictfp class CriticallyDampedSmoothing extends Smoothing {
+
+    /**
+     * The approximate time in seconds to reach the target. The spring's angular frequency is <code>2 / smoothTime</code>.
+     */
+    public double smoothTime;
+
+    /**
+     * @param smoothTime
+     *            the approximate time in seconds to reach the target
+     */
+    public CriticallyDampedSmoothing(double smoothTime) {
+        if (smoothTime <= 0.0) {
+            throw new IllegalArgumentException("smoothTime must be positive");
+        }
+        this.smoothTime = smoothTime;
+    }
+
+    protected void integrate(double[] state, int dims, double dt) {
+        double omega = 2.0 / smoothTime;
+        double e = StrictMath.exp(-omega * dt);
+        for (int i = 0; i < dims; i++) {
+            double x = state[i], v = state[dims + i];
+            /* x(t) = (x + (v + omega*x)*t) * e^(-omega*t) */
+            double t = (v + omega * x) * dt;
+            state[i] = (x + t) * e;
+            state[dims + i] = (v - omega * t) * e;
+        }
+    }
+
+}
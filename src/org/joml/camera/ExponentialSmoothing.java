@@ -0,0 +1,36 @@
+package org.joml.camera;
+
+/**
+ * Moves towards the target with exponential decay, halving the remaining distance every {@link #halfLife} seconds.
+ * <p>
+ * The velocity is not retained between steps, so the mover responds to target changes immediately.
+ */
+public strictfp class ExponentialSmoothing extends Smoothing {
+
+    /**
+     * The time in seconds after which half of the remaining distance is covered.
+     */
+    public double halfLife;
+
+    /**
+     * @param halfLife
+     *            the time in seconds after which half of the remaining distance is covered
+     */
+    public ExponentialSmoothing(double halfLife) {
+        if (halfLife <= 0.0) {
+            throw new IllegalArgumentException("halfLife must be positive");
+        }
+        this.halfLife = halfLife;
+    }
+
+    protected void integrate(double[] state, int dims, double dt) {
+        double lambda = LN2 / halfLife;
+        double e = StrictMath.exp(-lambda * dt);
+        for (int i = 0; i < dims; i++) {
+            double x = state[i] * e;
+            state[i] = x;
+            state[dims + i] = -lambda * x;
+        }
+    }
+
+}
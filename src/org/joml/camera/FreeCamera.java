@@ -30,10 +30,14 @@ import org.joml.Vector3f;
  * A very simple but fully functional 6-DOF free/space camera.
  * <p>
  * It allows to set the linear acceleration or velocity in world-space and the angular acceleration or velocity in local camera/eye space.
+ * <p>
+ * {@link #update(float)} is deterministic: it integrates the rotation with {@link StrictMath} instead of JOML's
+ * {@link Quaternionf#integrate(float, float, float, float) integrate}, and it does not depend on JOML's
+ * <code>joml.fastmath</code> and <code>joml.useMathFma</code> options. See {@link StateChecksum}.
  * 
  * @author Kai Burjack
  */
-public class FreeCamera {
+public strictfp class FreeCamera implements Camera {
     public Vector3f linearAcc = new Vector3f();
     public Vector3f linearVel = new Vector3f();
 
@@ -44,6 +48,49 @@ public class FreeCamera {
     public Vector3f position = new Vector3f(0, 0, 10);
     public Quaternionf rotation = new Quaternionf();
 
+    /** The projection of this camera. */
+    public final Projection projection = new Projection();
+
+    /** If not <code>null</code>, a snapshot is published to this buffer after every {@link #update(float)}. */
+    public CameraSnapshotBuffer snapshots;
+
+    /**
+     * If not <code>null</code>, receives the {@link CameraMetrics#CAMERA_UPDATES} and
+     * {@link CameraMetrics#VIEW_MATRIX_REBUILDS} counters and the {@link CameraMetrics#CAMERA_UPDATE_NANOS} of this
+     * camera.
+     */
+    public CameraMetrics metrics;
+
+    /**
+     * The linear velocities followed by the angular velocities of the recent updates, which
+     * {@link #predict(float, Matrix4f)} extrapolates with. If <code>null</code>, which is the default, the current
+     * velocities are used. Assign e.g. <code>new VelocityHistory(4, 6)</code> to smooth the prediction.
+     */
+    public VelocityHistory velocityHistory;
+
+    private double time;
+
+    /* The state before the last update, for interpolation */
+    private final Vector3f previousPosition = new Vector3f();
+    private final Quaternionf previousRotation = new Quaternionf();
+    private boolean hasPrevious;
+
+    /* Some helper objects */
+    private final Vector3f interpolatedPosition = new Vector3f();
+    private final Quaternionf interpolatedRotation = new Quaternionf();
+    private final float[] velocitySample = new float[6];
+    private final Vector3f predictedPosition = new Vector3f();
+    private final Quaternionf predictedRotation = new Quaternionf();
+
+    /* The cached view matrix and its inverse together with the state they were computed from */
+    private final Matrix4f view = new Matrix4f();
+    private final Matrix4f invView = new Matrix4f();
+    private int viewVersion;
+    private boolean viewValid;
+    private final Vector3f viewPosition = new Vector3f();
+    private final Quaternionf viewRotation = new Quaternionf();
+    private final CameraFrustum frustum = new CameraFrustum();
+
     /**
      * Update this {@link FreeCamera} based on the given elapsed time.
      * 
@@ -52,17 +99,171 @@ public class FreeCamera {
      * @return this
      */
     public FreeCamera update(float dt) {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        previousPosition.set(position);
+        previousRotation.set(rotation);
+        hasPrevious = true;
         // update linear velocity based on linear acceleration
-        linearVel.fma(dt, linearAcc);
+        fma(dt, linearAcc, linearVel);
         // update angular velocity based on angular acceleration
-        angularVel.fma(dt, angularAcc);
+        fma(dt, angularAcc, angularVel);
         // update the rotation based on the angular velocity
-        rotation.integrate(dt, angularVel.x, angularVel.y, angularVel.z);
+        integrate(dt, angularVel.x, angularVel.y, angularVel.z, rotation);
         // update position based on linear velocity
-        position.fma(dt, linearVel);
+        fma(dt, linearVel, position);
+        time += dt;
+        if (velocityHistory != null) {
+            float[] v = velocitySample;
+            v[0] = linearVel.x;
+            v[1] = linearVel.y;
+            v[2] = linearVel.z;
+            v[3] = angularVel.x;
+            v[4] = angularVel.y;
+            v[5] = angularVel.z;
+            velocityHistory.add(dt, v);
+        }
+        if (snapshots != null) {
+            publish(snapshots);
+        }
+        if (metrics != null) {
+            report(start);
+        }
+        return this;
+    }
+
+    private void report(long start) {
+        metrics.increment(CameraMetrics.CAMERA_UPDATES);
+        metrics.record(CameraMetrics.CAMERA_UPDATE_NANOS, System.nanoTime() - start);
+    }
+
+    private static void fma(float a, Vector3f b, Vector3f dest) {
+        dest.x = a * b.x + dest.x;
+        dest.y = a * b.y + dest.y;
+        dest.z = a * b.z + dest.z;
+    }
+
+    /**
+     * Same as {@link Quaternionf#integrate(float, float, float, float)}, but with {@link StrictMath} and without fused
+     * multiply-add, so that the result is the same on every JVM.
+     */
+    private static void integrate(float dt, float vx, float vy, float vz, Quaternionf q) {
+        float thetaX = dt * vx * 0.5f;
+        float thetaY = dt * vy * 0.5f;
+        float thetaZ = dt * vz * 0.5f;
+        float thetaMagSq = thetaX * thetaX + thetaY * thetaY + thetaZ * thetaZ;
+        float s, dqW;
+        if (thetaMagSq * thetaMagSq / 24.0f < 1E-8f) {
+            dqW = 1.0f - thetaMagSq * 0.5f;
+            s = 1.0f - thetaMagSq / 6.0f;
+        } else {
+            float thetaMag = (float) StrictMath.sqrt(thetaMagSq);
+            s = (float) StrictMath.sin(thetaMag) / thetaMag;
+            dqW = (float) StrictMath.cos(thetaMag);
+        }
+        float dqX = thetaX * s;
+        float dqY = thetaY * s;
+        float dqZ = thetaZ * s;
+        q.set(dqW * q.x + (dqX * q.w + (dqY * q.z + -dqZ * q.y)),
+              dqW * q.y + (-dqX * q.z + (dqY * q.w + dqZ * q.x)),
+              dqW * q.z + (dqX * q.y + (-dqY * q.x + dqZ * q.w)),
+              dqW * q.w + (-dqX * q.x + (-dqY * q.y + -dqZ * q.z)));
+    }
+
+    /**
+     * Forget the state before the last update, so that {@link #interpolatedViewMatrix(float, Matrix4f)} does not blend
+     * from it. Call this after teleporting the camera by setting its {@link #position} or {@link #rotation}.
+     * <p>
+     * This also clears the {@link #velocityHistory}, whose samples belong to the motion before the jump.
+     * 
+     * @return this
+     */
+    public FreeCamera resetInterpolation() {
+        hasPrevious = false;
+        if (velocityHistory != null) {
+            velocityHistory.clear();
+        }
         return this;
     }
 
+    /**
+     * Apply the camera/view transformation of this {@link FreeCamera} interpolated between the state before and after
+     * the last {@link #update(float)} to the given matrix.
+     * <p>
+     * This allows to render at a higher rate than the simulation is updated at. The position is interpolated linearly
+     * and the rotation via normalized linear interpolation along the shortest arc.
+     * 
+     * @param alpha
+     *            the interpolation factor in <code>[0, 1]</code>, where <code>0</code> is the state before and
+     *            <code>1</code> the state after the last update
+     * @param dest
+     *            the matrix to apply the interpolated view transformation to
+     * @return dest
+     */
+    public Matrix4f interpolatedViewMatrix(float alpha, Matrix4f dest) {
+        if (!hasPrevious) {
+            return apply(dest);
+        }
+        Vector3f p = previousPosition.lerp(position, alpha, interpolatedPosition);
+        return dest.rotate(previousRotation.nlerp(rotation, alpha, interpolatedRotation))
+                   .translate(-p.x, -p.y, -p.z);
+    }
+
+    /**
+     * Apply the camera/view transformation of this {@link FreeCamera} extrapolated <code>aheadSeconds</code> into the
+     * future to the given matrix, without changing the state of this camera.
+     * <p>
+     * This allows to render the frame for the time at which it will be displayed, compensating the latency between
+     * input and display. The extrapolation uses the average velocities of the {@link #velocityHistory} together with
+     * the current accelerations. Once the real updates have caught up, {@link #viewMatrix(Matrix4f)} reconciles with
+     * the simulated state.
+     * 
+     * @param aheadSeconds
+     *            the time in seconds to extrapolate into the future
+     * @param dest
+     *            the matrix to apply the extrapolated view transformation to
+     * @return dest
+     */
+    public Matrix4f predict(float aheadSeconds, Matrix4f dest) {
+        float[] v = velocitySample;
+        if (velocityHistory == null || !velocityHistory.average(v)) {
+            v[0] = linearVel.x;
+            v[1] = linearVel.y;
+            v[2] = linearVel.z;
+            v[3] = angularVel.x;
+            v[4] = angularVel.y;
+            v[5] = angularVel.z;
+        }
+        float t = aheadSeconds, halfT = 0.5f * aheadSeconds;
+        Vector3f p = predictedPosition.set(position.x + (v[0] + linearAcc.x * halfT) * t,
+                                           position.y + (v[1] + linearAcc.y * halfT) * t,
+                                           position.z + (v[2] + linearAcc.z * halfT) * t);
+        /* The average angular velocity over the interval under constant angular acceleration */
+        Quaternionf q = predictedRotation.set(rotation);
+        integrate(t, v[3] + angularAcc.x * halfT, v[4] + angularAcc.y * halfT, v[5] + angularAcc.z * halfT, q);
+        return dest.rotate(q).translate(-p.x, -p.y, -p.z);
+    }
+
+    /**
+     * Publish the current state of this {@link FreeCamera} to the given buffer, unless its readers hold all
+     * snapshots.
+     * 
+     * @param buffer
+     *            the buffer to publish to
+     */
+    public void publish(CameraSnapshotBuffer buffer) {
+        validateView();
+        CameraSnapshot s = buffer.beginWrite();
+        if (s == null) {
+            return;
+        }
+        s.view.set(view);
+        s.invView.set(invView);
+        s.position.set(position);
+        s.orientation.set(rotation);
+        s.time = time;
+        buffer.publish();
+    }
+
     /**
      * Compute the world-space 'right' vector and store it into <code>dest</code>.
      * 
@@ -107,4 +308,69 @@ public class FreeCamera {
         return m.rotate(rotation).translate(-position.x, -position.y, -position.z);
     }
 
+    /**
+     * Apply the camera/view transformation of this {@link FreeCamera} to the given matrix by post-multiplying it.
+     * <p>
+     * Unlike {@link #apply(Matrix4f)}, the view transformation is cached and only recomputed when the camera moved
+     * since the last call.
+     * 
+     * @param mat
+     *            the matrix which gets post-multiplied by the camera's view transformation matrix
+     * @return the supplied matrix
+     */
+    public Matrix4f viewMatrix(Matrix4f mat) {
+        validateView();
+        return mat.mul(view);
+    }
+
+    public Matrix4f inverseViewMatrix(Matrix4f dest) {
+        validateView();
+        return dest.set(invView);
+    }
+
+    public int getViewVersion() {
+        validateView();
+        return viewVersion;
+    }
+
+    public Projection getProjection() {
+        return projection;
+    }
+
+    public CameraFrustum frustum() {
+        frustum.update(this);
+        return frustum;
+    }
+
+    /**
+     * Mix the state of this {@link FreeCamera} into the given hash.
+     * 
+     * @param hash
+     *            the hash so far
+     * @return the new hash
+     * @see StateChecksum
+     */
+    public long checksum(long hash) {
+        hash = StateChecksum.mix(hash, linearAcc);
+        hash = StateChecksum.mix(hash, linearVel);
+        hash = StateChecksum.mix(hash, angularAcc);
+        hash = StateChecksum.mix(hash, angularVel);
+        hash = StateChecksum.mix(hash, position);
+        return StateChecksum.mix(hash, rotation);
+    }
+
+    private void validateView() {
+        if (viewValid && viewPosition.equals(position) && viewRotation.equals(rotation)) {
+            return;
+        }
+        viewPosition.set(position);
+        viewRotation.set(rotation);
+        apply(view.identity()).invert(invView);
+        viewValid = true;
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.VIEW_MATRIX_REBUILDS);
+        }
+        viewVersion++;
+    }
+
 }
@@ -0,0 +1,125 @@
+package org.joml.camera;
+
+import org.joml.Matrix4d;
+import org.joml.Matrix4f;
+import org.joml.Quaterniond;
+import org.joml.Quaternionf;
+import org.joml.Vector3d;
+import org.joml.Vector3dc;
+
+/**
+ * Double-precision variant of {@link FreeCamera}.
+ * <p>
+ * It stores the position, velocities and rotation in double precision, so that it can move far away from the origin
+ * without jitter. For rendering with <code>float</code> matrices, use {@link #apply(Matrix4f, Vector3dc)}, which
+ * computes the camera position relative to a given origin in double precision before narrowing to <code>float</code>.
+ */
+public class FreeCamerad {
+    public Vector3d linearAcc = new Vector3d();
+    public Vector3d linearVel = new Vector3d();
+
+    /** Always rotation about the local XYZ axes of the camera! */
+    public Vector3d angularAcc = new Vector3d();
+    public Vector3d angularVel = new Vector3d();
+
+    public Vector3d position = new Vector3d(0, 0, 10);
+    public Quaterniond rotation = new Quaterniond();
+
+    private final Quaternionf rotationf = new Quaternionf();
+
+    /**
+     * Update this {@link FreeCamerad} based on the given elapsed time.
+     *
+     * @param dt
+     *            the elapsed time
+     * @return this
+     */
+    public FreeCamerad update(double dt) {
+        // update linear velocity based on linear acceleration
+        linearVel.fma(dt, linearAcc);
+        // update angular velocity based on angular acceleration
+        angularVel.fma(dt, angularAcc);
+        // update the rotation based on the angular velocity
+        rotation.integrate(dt, angularVel.x, angularVel.y, angularVel.z);
+        // update position based on linear velocity
+        position.fma(dt, linearVel);
+        return this;
+    }
+
+    /**
+     * Compute the world-space 'right' vector and store it into <code>dest</code>.
+     *
+     * @param dest
+     *          will hold the result
+     * @return dest
+     */
+    public Vector3d right(Vector3d dest) {
+        return rotation.positiveX(dest);
+    }
+
+    /**
+     * Compute the world-space 'up' vector and store it into <code>dest</code>.
+     *
+     * @param dest
+     *          will hold the result
+     * @return dest
+     */
+    public Vector3d up(Vector3d dest) {
+        return rotation.positiveY(dest);
+    }
+
+    /**
+     * Compute the world-space 'forward' vector and store it into <code>dest</code>.
+     *
+     * @param dest
+     *          will hold the result
+     * @return dest
+     */
+    public Vector3d forward(Vector3d dest) {
+        return rotation.positiveZ(dest).negate();
+    }
+
+    /**
+     * Apply the camera/view transformation of this {@link FreeCamerad} to the given matrix.
+     *
+     * @param m
+     *            the matrix to apply the view transformation to
+     * @return m
+     */
+    public Matrix4d apply(Matrix4d m) {
+        return m.rotate(rotation).translate(-position.x, -position.y, -position.z);
+    }
+
+    /**
+     * Apply only the rotation of this {@link FreeCamerad} to the given matrix, placing the camera at the origin.
+     * <p>
+     * This is the view transformation for geometry which has already been translated by the negated camera position.
+     *
+     * @param m
+     *            the matrix to apply the view rotation to
+     * @return m
+     */
+    public Matrix4f apply(Matrix4f m) {
+        return m.rotate(rotationf.set(rotation));
+    }
+
+    /**
+     * Apply the camera/view transformation of this {@link FreeCamerad} to the given matrix for geometry which is
+     * specified relative to the given <code>origin</code>.
+     * <p>
+     * The camera position relative to <code>origin</code> is computed in double precision, so the resulting
+     * <code>float</code> matrix stays precise as long as the camera is near <code>origin</code>, regardless of how far
+     * both are away from the world's origin.
+     *
+     * @param m
+     *            the matrix to apply the view transformation to
+     * @param origin
+     *            the world-space origin of the geometry's coordinate system
+     * @return m
+     */
+    public Matrix4f apply(Matrix4f m, Vector3dc origin) {
+        return m.rotate(rotationf.set(rotation))
+                .translate((float) (origin.x() - position.x), (float) (origin.y() - position.y), (float) (origin.z() - position.z));
+    }
+
+}
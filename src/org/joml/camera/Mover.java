@@ -0,0 +1,70 @@
+package org.joml.camera;
+
+/**
+ * Base class of the integrators which move a <code>current</code> value towards a <code>target</code> value.
+ * <p>
+ * A mover is {@link #isSettled() settled} when {@link #update(float)} would not change it anymore. A
+ * {@link MoverScheduler} uses this to stop updating settled movers until they are {@link #wake() woken} again, which
+ * the <code>setTarget</code> methods of the subclasses do automatically.
+ * <p>
+ * By default, movers accelerate and decelerate with their maximum rates. Setting a {@link #smoothing} strategy
+ * replaces that by the strategy's closed-form integration.
+ */
+public abstract class Mover {
+
+    /**
+     * The strategy which moves this mover towards its target, or <code>null</code> to use the mover's maximum
+     * acceleration/deceleration integration.
+     */
+    public Smoothing smoothing;
+
+    /**
+     * If not <code>null</code>, receives the {@link CameraMetrics#MOVER_UPDATES} and
+     * {@link CameraMetrics#MOVER_TARGET_CLAMPS} counters of this mover.
+     */
+    public CameraMetrics metrics;
+
+    /* The state passed to the smoothing strategy, allocated on first use */
+    private double[] smoothingState;
+
+    /* The scheduler this mover belongs to and its index in the scheduler's active list, or -1 if it is asleep */
+    MoverScheduler scheduler;
+    int activeIndex = -1;
+
+    /**
+     * Update the simulation based on the elapsed time since the last update.
+     *
+     * @param elapsedTimeInSeconds
+     *            the elapsed time in seconds since the last update
+     */
+    public abstract void update(float elapsedTimeInSeconds);
+
+    /**
+     * Determine whether this mover reached its target, so that {@link #update(float)} would not change it.
+     *
+     * @return <code>true</code> if this mover is settled
+     */
+    public abstract boolean isSettled();
+
+    /**
+     * Return the array to pass the state of this mover to its {@link #smoothing} strategy.
+     */
+    double[] smoothingState(int dims) {
+        if (smoothingState == null) {
+            smoothingState = new double[2 * dims];
+        }
+        return smoothingState;
+    }
+
+    /**
+     * Make the {@link MoverScheduler} this mover belongs to update it again.
+     * <p>
+     * This must be called after modifying the target, current value or velocity fields of a settled mover directly.
+     */
+    public void wake() {
+        if (scheduler != null) {
+            scheduler.wake(this);
+        }
+    }
+
+}
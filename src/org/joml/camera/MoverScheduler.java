@@ -0,0 +1,134 @@
+package org.joml.camera;
+
+/**
+ * Updates a set of {@link Mover movers}, skipping all movers which are settled.
+ * <p>
+ * The scheduler keeps a list of active movers. After each update, a mover which {@link Mover#isSettled() settled}
+ * is removed from that list and costs nothing anymore until it is {@link Mover#wake() woken} again, for example by
+ * setting a new target through its <code>setTarget</code> method. The cost of {@link #update(float)} therefore only
+ * depends on the number of moving movers.
+ * <p>
+ * A mover can belong to at most one scheduler, and it must not be updated by anything else while it belongs to one.
+ * The order in which the active movers are updated is unspecified.
+ */
+public class MoverScheduler {
+
+    /**
+     * If not <code>null</code>, receives the number of active movers of every update as
+     * {@link CameraMetrics#ACTIVE_MOVERS}.
+     */
+    public CameraMetrics metrics;
+
+    private Mover[] active;
+    private int activeCount;
+    private int size;
+
+    /**
+     * Create a new, empty {@link MoverScheduler}.
+     */
+    public MoverScheduler() {
+        this(16);
+    }
+
+    /**
+     * Create a new, empty {@link MoverScheduler} with space for the given number of active movers.
+     *
+     * @param capacity
+     *            the initial capacity of the active list
+     */
+    public MoverScheduler(int capacity) {
+        active = new Mover[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Add the given mover to this scheduler. It starts out active.
+     *
+     * @param mover
+     *            the mover to add
+     */
+    public void add(Mover mover) {
+        if (mover.scheduler != null) {
+            throw new IllegalStateException("Mover already belongs to a scheduler");
+        }
+        mover.scheduler = this;
+        size++;
+        wake(mover);
+    }
+
+    /**
+     * Remove the given mover from this scheduler.
+     *
+     * @param mover
+     *            the mover to remove
+     */
+    public void remove(Mover mover) {
+        if (mover.scheduler != this) {
+            throw new IllegalArgumentException("Mover does not belong to this scheduler");
+        }
+        if (mover.activeIndex >= 0) {
+            deactivate(mover);
+        }
+        mover.scheduler = null;
+        size--;
+    }
+
+    void wake(Mover mover) {
+        if (mover.activeIndex >= 0) {
+            return;
+        }
+        if (activeCount == active.length) {
+            Mover[] newActive = new Mover[active.length * 2];
+            System.arraycopy(active, 0, newActive, 0, activeCount);
+            active = newActive;
+        }
+        mover.activeIndex = activeCount;
+        active[activeCount++] = mover;
+    }
+
+    private void deactivate(Mover mover) {
+        int i = mover.activeIndex;
+        Mover last = active[--activeCount];
+        active[i] = last;
+        last.activeIndex = i;
+        active[activeCount] = null;
+        mover.activeIndex = -1;
+    }
+
+    /**
+     * @return the number of movers in this scheduler
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of movers which are currently being updated
+     */
+    public int activeCount() {
+        return activeCount;
+    }
+
+    /**
+     * Update all active movers based on the elapsed time since the last update, and put those to sleep which settled.
+     *
+     * @param elapsedTimeInSeconds
+     *            the elapsed time in seconds since the last update
+     */
+    public void update(float elapsedTimeInSeconds) {
+        if (metrics != null) {
+            metrics.record(CameraMetrics.ACTIVE_MOVERS, activeCount);
+        }
+        int i = 0;
+        while (i < activeCount) {
+            Mover m = active[i];
+            m.update(elapsedTimeInSeconds);
+            if (m.isSettled()) {
+                /* The last active mover takes its place, so visit index i again */
+                deactivate(m);
+            } else {
+                i++;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package org.joml.camera;
+
+/**
+ * A spatial index of world geometry which an {@link ArcBallCamera} queries to keep its eye position in front of
+ * occluders.
+ * <p>
+ * Implementations must not allocate in {@link #castRay(float, float, float, float, float, float, float) castRay} and
+ * must allow concurrent queries, so that a single read-only index can be shared by many cameras which are updated
+ * in parallel, for example by a {@link CameraGroup}.
+ *
+ * @see UniformGrid
+ */
+public interface OcclusionIndex {
+
+    /**
+     * Return the distance from the ray's origin to the first geometry hit by the ray, or <code>maxDistance</code> if
+     * nothing is hit before that.
+     * <p>
+     * Geometry which contains the ray's origin is ignored, so that a center inside of geometry does not collapse the
+     * camera onto it.
+     *
+     * @param originX
+     *            the x coordinate of the ray's origin
+     * @param originY
+     *            the y coordinate of the ray's origin
+     * @param originZ
+     *            the z coordinate of the ray's origin
+     * @param dirX
+     *            the x coordinate of the ray's normalized direction
+     * @param dirY
+     *            the y coordinate of the ray's normalized direction
+     * @param dirZ
+     *            the z coordinate of the ray's normalized direction
+     * @param maxDistance
+     *            the maximum distance to search
+     * @return the distance to the first hit, or <code>maxDistance</code>
+     */
+    float castRay(float originX, float originY, float originZ, float dirX, float dirY, float dirZ, float maxDistance);
+
+}
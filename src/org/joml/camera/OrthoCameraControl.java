@@ -1,5 +1,7 @@
 package org.joml.camera;
 
+import java.nio.FloatBuffer;
+
 import org.joml.Math;
 import org.joml.Matrix3x2f;
 import org.joml.Matrix4f;
@@ -19,7 +21,17 @@ import org.joml.Vector4f;
  * <li>{@link #zoom(float)} to zoom in/out
  * <li>{@link #viewproj()} to obtain the current view-projection matrix
  * <li>{@link #center(float, float)} to center the view onto the given coordinate
+ * <li>{@link #worldToWindow(float[], float[], int)} and {@link #windowToWorld(float[], float[], int)} to transform
+ * many points at once, e.g. for picking
  * </ul>
+ * <p>
+ * The inverse of the view transformation is maintained incrementally by applying the inverse of each pan, rotation
+ * and zoom operation, so that no matrix inversion is necessary for mouse input. With {@link #setLazyUpdate(boolean)
+ * lazy updates} enabled, mouse input only changes the view transformation, and the view-projection matrices are
+ * rebuilt once when they are next read.
+ * <p>
+ * This class is not thread-safe. To deliver mouse input from other threads, queue it in an
+ * {@link OrthoCameraInputQueue} and drain that once per frame.
  * 
  * @author Kai Burjack
  */
@@ -29,7 +41,24 @@ public class OrthoCameraControl {
     public static int MOUSE_RIGHT = 1;
     public static int MOUSE_CENTER = 2;
 
+    /**
+     * Number of incremental changes to {@link #invview} after which it is recomputed from {@link #view} in order to
+     * avoid accumulating rounding errors.
+     */
+    private static final int MAX_INCREMENTAL_INVERSIONS = 64;
+
+    /**
+     * If not <code>null</code>, receives the {@link CameraMetrics#ORTHO_MATRIX_REBUILDS} counter.
+     */
+    public CameraMetrics metrics;
+
     private Matrix3x2f view = new Matrix3x2f();
+    private Matrix3x2f invview = new Matrix3x2f();
+    private int incrementalInversions;
+    private boolean lazyUpdate;
+    private boolean dirty;
+    private final Vector4f viewRect = new Vector4f();
+    private boolean viewRectValid;
     private Matrix4f viewproj = new Matrix4f();
     private Matrix4f invviewproj = new Matrix4f();
     private int[] vp = new int[4];
@@ -47,6 +76,7 @@ public class OrthoCameraControl {
      */
     public OrthoCameraControl(float extents) {
         view.view(-extents, extents, -extents, extents);
+        view.invert(invview);
         update();
     }
 
@@ -60,6 +90,25 @@ public class OrthoCameraControl {
         this.minRotateWinDistance2 = minRotateWinDistance * minRotateWinDistance;
     }
 
+    /**
+     * @param lazyUpdate
+     *            whether to rebuild the view-projection matrices only when they are next read instead of after every
+     *            change. This coalesces many mouse events into a single rebuild.
+     */
+    public void setLazyUpdate(boolean lazyUpdate) {
+        this.lazyUpdate = lazyUpdate;
+        if (!lazyUpdate && dirty) {
+            update();
+        }
+    }
+
+    /**
+     * @return whether the view-projection matrices are only rebuilt when they are next read
+     */
+    public boolean isLazyUpdate() {
+        return lazyUpdate;
+    }
+
     /**
      * @param width
      *            the width of the control/window in window coordinates/pixels
@@ -71,21 +120,51 @@ public class OrthoCameraControl {
         vp[1] = 0;
         vp[2] = width;
         vp[3] = height;
-        update();
+        changed();
     }
 
     public Matrix4f viewproj() {
+        if (dirty) {
+            update();
+        }
         return viewproj;
     }
     public Matrix4f invviewproj() {
+        if (dirty) {
+            update();
+        }
         return invviewproj;
     }
 
+    private void viewChanged() {
+        if (++incrementalInversions >= MAX_INCREMENTAL_INVERSIONS) {
+            view.invert(invview);
+            incrementalInversions = 0;
+        }
+        changed();
+    }
+
+    private void changed() {
+        if (lazyUpdate) {
+            dirty = true;
+        } else {
+            update();
+        }
+    }
+
     private void update() {
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.ORTHO_MATRIX_REBUILDS);
+        }
         float aspect = (float) vp[2] / vp[3];
         viewproj.setOrtho2D(-aspect, +aspect, -1, +1)
-                .mul(view)
-                .invertAffine(invviewproj);
+                .mul(view);
+        /* The inverse of setOrtho2D(-aspect, +aspect, -1, +1) is a scaling by (aspect, 1, -1) */
+        invviewproj.identity()
+                   .mul(invview)
+                   .scale(aspect, 1, -1);
+        dirty = false;
+        viewRectValid = false;
     }
 
     /**
@@ -96,7 +175,9 @@ public class OrthoCameraControl {
      */
     public void center(float x, float y) {
         view.setTranslation(0, 0).translate(-x, -y);
-        update();
+        view.invert(invview);
+        incrementalInversions = 0;
+        changed();
     }
 
     public void onMouseDown(int button) {
@@ -111,7 +192,10 @@ public class OrthoCameraControl {
             view.translateLocal(-ndc.x, -ndc.y)
                 .rotateLocal(ang)
                 .translateLocal(ndc.x, ndc.y);
-            update();
+            invview.translate(ndc.x, ndc.y)
+                   .rotate(-ang)
+                   .translate(-ndc.x, -ndc.y);
+            viewChanged();
         }
     }
 
@@ -134,7 +218,8 @@ public class OrthoCameraControl {
             ndc = ndc(mouseX, mouseY);
             float x1 = ndc.x, y1 = ndc.y;
             view.translateLocal(x0 - x1, y0 - y1);
-            update();
+            invview.translate(x1 - x0, y1 - y0);
+            viewChanged();
         } else if (mouseDown[MOUSE_RIGHT]) {
             /* Check if rotation is possible */
             float dx = winX - mouseDownX;
@@ -148,7 +233,10 @@ public class OrthoCameraControl {
                 view.translateLocal(-ndc.x, -ndc.y)
                     .rotateLocal(ang)
                     .translateLocal(ndc.x, ndc.y);
-                update();
+                invview.translate(ndc.x, ndc.y)
+                       .rotate(-ang)
+                       .translate(-ndc.x, -ndc.y);
+                viewChanged();
             }
         }
         mouseX = winX;
@@ -171,15 +259,24 @@ public class OrthoCameraControl {
         view.translateLocal(-ndc.x, -ndc.y)
             .scaleLocal(scale, scale)
             .translateLocal(ndc.x, ndc.y);
-        update();
+        invview.translate(ndc.x, ndc.y)
+               .scale(1.0f / scale)
+               .translate(-ndc.x, -ndc.y);
+        viewChanged();
     }
 
     /**
+     * The view rectangle is cached and only recomputed after the view changed.
+     * 
      * @param dest
      *            contains the view rectangle as {x: minX, y: minY, z: maxX, w: maxY}
      * @return dest
      */
     public Vector4f viewRect(Vector4f dest) {
+        Matrix4f invviewproj = invviewproj();
+        if (viewRectValid) {
+            return dest.set(viewRect);
+        }
         float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
         float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
         for (int i = 0; i < 4; i++) {
@@ -191,7 +288,121 @@ public class OrthoCameraControl {
             maxX = maxX > v3.x ? maxX : v3.x;
             maxY = maxY > v3.y ? maxY : v3.y;
         }
-        return dest.set(minX, minY, maxX, maxY);
+        viewRect.set(minX, minY, maxX, maxY);
+        viewRectValid = true;
+        return dest.set(viewRect);
+    }
+
+    /**
+     * Transform <code>count</code> world-space points to window coordinates/pixels using the current
+     * {@link #viewproj() view-projection matrix}.
+     * <p>
+     * The points are stored as consecutive <code>x, y</code> pairs. <code>in</code> and <code>out</code> may be the
+     * same array. Concurrent calls from multiple threads are safe as long as no thread changes this control at the same
+     * time and the matrices are up to date, for example after {@link #viewproj()} was called once.
+     * 
+     * @param in
+     *            the world-space points
+     * @param out
+     *            will hold the points in window coordinates
+     * @param count
+     *            the number of points
+     */
+    public void worldToWindow(float[] in, float[] out, int count) {
+        Matrix4f m = viewproj();
+        float sx = 0.5f * vp[2], sy = 0.5f * vp[3];
+        transform(in, out, count,
+                  m.m00() * sx, m.m10() * sx, (m.m30() + 1.0f) * sx,
+                  m.m01() * sy, m.m11() * sy, (m.m31() + 1.0f) * sy);
+    }
+
+    /**
+     * Transform <code>count</code> world-space points to window coordinates/pixels using the current
+     * {@link #viewproj() view-projection matrix}.
+     * <p>
+     * The points are stored as consecutive <code>x, y</code> pairs starting at the current position of each buffer. The
+     * positions of the buffers are not changed. See {@link #worldToWindow(float[], float[], int)} regarding thread
+     * safety.
+     * 
+     * @param in
+     *            the world-space points
+     * @param out
+     *            will hold the points in window coordinates
+     * @param count
+     *            the number of points
+     */
+    public void worldToWindow(FloatBuffer in, FloatBuffer out, int count) {
+        Matrix4f m = viewproj();
+        float sx = 0.5f * vp[2], sy = 0.5f * vp[3];
+        transform(in, out, count,
+                  m.m00() * sx, m.m10() * sx, (m.m30() + 1.0f) * sx,
+                  m.m01() * sy, m.m11() * sy, (m.m31() + 1.0f) * sy);
+    }
+
+    /**
+     * Transform <code>count</code> points in window coordinates/pixels to world space using the current
+     * {@link #invviewproj() inverse view-projection matrix}.
+     * <p>
+     * The points are stored as consecutive <code>x, y</code> pairs. <code>in</code> and <code>out</code> may be the
+     * same array. See {@link #worldToWindow(float[], float[], int)} regarding thread safety.
+     * 
+     * @param in
+     *            the points in window coordinates
+     * @param out
+     *            will hold the world-space points
+     * @param count
+     *            the number of points
+     */
+    public void windowToWorld(float[] in, float[] out, int count) {
+        Matrix4f m = invviewproj();
+        float sx = 2.0f / vp[2], sy = 2.0f / vp[3];
+        transform(in, out, count,
+                  m.m00() * sx, m.m10() * sy, m.m30() - m.m00() - m.m10(),
+                  m.m01() * sx, m.m11() * sy, m.m31() - m.m01() - m.m11());
+    }
+
+    /**
+     * Transform <code>count</code> points in window coordinates/pixels to world space using the current
+     * {@link #invviewproj() inverse view-projection matrix}.
+     * <p>
+     * The points are stored as consecutive <code>x, y</code> pairs starting at the current position of each buffer. The
+     * positions of the buffers are not changed. See {@link #worldToWindow(float[], float[], int)} regarding thread
+     * safety.
+     * 
+     * @param in
+     *            the points in window coordinates
+     * @param out
+     *            will hold the world-space points
+     * @param count
+     *            the number of points
+     */
+    public void windowToWorld(FloatBuffer in, FloatBuffer out, int count) {
+        Matrix4f m = invviewproj();
+        float sx = 2.0f / vp[2], sy = 2.0f / vp[3];
+        transform(in, out, count,
+                  m.m00() * sx, m.m10() * sy, m.m30() - m.m00() - m.m10(),
+                  m.m01() * sx, m.m11() * sy, m.m31() - m.m01() - m.m11());
+    }
+
+    /* Apply the 2D affine transformation x' = a*x + b*y + c, y' = d*x + e*y + f to all points */
+
+    private static void transform(float[] in, float[] out, int count,
+                                  float a, float b, float c, float d, float e, float f) {
+        for (int i = 0, n = 2 * count; i < n; i += 2) {
+            float x = in[i], y = in[i + 1];
+            out[i] = a * x + b * y + c;
+            out[i + 1] = d * x + e * y + f;
+        }
+    }
+
+    private static void transform(FloatBuffer in, FloatBuffer out, int count,
+                                  float a, float b, float c, float d, float e, float f) {
+        int ip = in.position(), op = out.position();
+        for (int i = 0, n = 2 * count; i < n; i += 2) {
+            float x = in.get(ip + i), y = in.get(ip + i + 1);
+            out.put(op + i, a * x + b * y + c);
+            out.put(op + i + 1, d * x + e * y + f);
+        }
     }
 
     /**
@@ -203,10 +414,22 @@ public class OrthoCameraControl {
      *            the direction and length (in world coordinates) of the view along the NDC y axis
      */
     public void viewSpan(Vector2f cornerDest, Vector2f xDest, Vector2f yDest) {
+        Matrix4f invviewproj = invviewproj();
         invviewproj.transformPosition(v3.set(-1, -1, 0));
         cornerDest.set(v3.x, v3.y);
-        xDest.set(2*invviewproj.m00(), 2*invviewproj.m10());
-        yDest.set(2*invviewproj.m01(), 2*invviewproj.m11());
+        xDest.set(2*invviewproj.m00(), 2*invviewproj.m01());
+        yDest.set(2*invviewproj.m10(), 2*invviewproj.m11());
+    }
+
+    /**
+     * Return the edge length of a window pixel in world coordinates, which is the same along both axes.
+     * 
+     * @return the world units per pixel
+     */
+    public float worldUnitsPerPixel() {
+        Matrix4f invviewproj = invviewproj();
+        float m00 = invviewproj.m00(), m01 = invviewproj.m01();
+        return 2.0f * (float) Math.sqrt(m00 * m00 + m01 * m01) / vp[2];
     }
 
 }
@@ -0,0 +1,184 @@
+package org.joml.camera;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Queues mouse input for an {@link OrthoCameraControl} from any number of threads, so that the events can be applied
+ * once per frame on the thread which owns the control.
+ * <p>
+ * The queue is a bounded lock-free ring buffer of primitive event records. The input methods never block and never
+ * allocate. If the queue is full, they drop the event and return <code>false</code>, so the capacity should exceed the
+ * number of events expected between two calls to {@link #drainTo(OrthoCameraControl)}.
+ * <p>
+ * Draining applies the events in the order they were queued through the regular input methods of
+ * {@link OrthoCameraControl}, so the resulting view transformation is exactly the same as if each event had been
+ * delivered directly. The view-projection matrices are only rebuilt once per drain.
+ */
+public class OrthoCameraInputQueue {
+
+    private static final int MOUSE_DOWN = 0;
+    private static final int MOUSE_UP = 1;
+    private static final int MOUSE_MOVE = 2;
+    private static final int ZOOM = 3;
+
+    /* Each record consists of the event type and two arguments */
+    private static final int RECORD_SIZE = 3;
+
+    private final int mask;
+    private final int[] records;
+    /* The position a slot will be written at next, or that position + 1 once the record in it is published */
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * Create a new, empty {@link OrthoCameraInputQueue}.
+     *
+     * @param capacity
+     *            the maximum number of queued events, which is rounded up to the next power of two
+     */
+    public OrthoCameraInputQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        records = new int[size * RECORD_SIZE];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return the maximum number of queued events
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Queue a call to {@link OrthoCameraControl#onMouseDown(int)}.
+     *
+     * @param button
+     *            the mouse button
+     * @return <code>true</code> if the event was queued; <code>false</code> if the queue was full
+     */
+    public boolean onMouseDown(int button) {
+        return offer(MOUSE_DOWN, button, 0);
+    }
+
+    /**
+     * Queue a call to {@link OrthoCameraControl#onMouseUp(int)}.
+     *
+     * @param button
+     *            the mouse button
+     * @return <code>true</code> if the event was queued; <code>false</code> if the queue was full
+     */
+    public boolean onMouseUp(int button) {
+        return offer(MOUSE_UP, button, 0);
+    }
+
+    /**
+     * Queue a call to {@link OrthoCameraControl#onMouseMove(int, int)}.
+     *
+     * @param winX
+     *            the x coordinate in window coordinates/pixels
+     * @param winY
+     *            the y coordinate in window coordinates/pixels
+     * @return <code>true</code> if the event was queued; <code>false</code> if the queue was full
+     */
+    public boolean onMouseMove(int winX, int winY) {
+        return offer(MOUSE_MOVE, winX, winY);
+    }
+
+    /**
+     * Queue a call to {@link OrthoCameraControl#zoom(float)}.
+     *
+     * @param scale
+     *            the scale factor. &lt; 1.0 to zoom out; &gt; 1.0 to zoom in
+     * @return <code>true</code> if the event was queued; <code>false</code> if the queue was full
+     */
+    public boolean zoom(float scale) {
+        return offer(ZOOM, Float.floatToRawIntBits(scale), 0);
+    }
+
+    private boolean offer(int type, int arg0, int arg1) {
+        long pos = tail.get();
+        int slot;
+        for (;;) {
+            slot = (int) pos & mask;
+            long diff = sequences.get(slot) - pos;
+            if (diff == 0) {
+                /* The slot is free for this position, so try to claim it */
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                /* The slot still holds the record from one lap ago */
+                return false;
+            } else {
+                /* Another producer claimed this position */
+                pos = tail.get();
+            }
+        }
+        int i = slot * RECORD_SIZE;
+        records[i] = type;
+        records[i + 1] = arg0;
+        records[i + 2] = arg1;
+        sequences.lazySet(slot, pos + 1);
+        return true;
+    }
+
+    /**
+     * Apply all queued events to the given control in the order they were queued.
+     * <p>
+     * This must only be called by one thread at a time, which should be the thread owning the control.
+     *
+     * @param control
+     *            the control to apply the events to
+     * @return the number of applied events
+     */
+    public int drainTo(OrthoCameraControl control) {
+        boolean lazyUpdate = control.isLazyUpdate();
+        control.setLazyUpdate(true);
+        int count = 0;
+        try {
+            for (;;) {
+                int slot = (int) head & mask;
+                if (sequences.get(slot) != head + 1) {
+                    /* The record at the head is not published yet */
+                    break;
+                }
+                int i = slot * RECORD_SIZE;
+                int type = records[i], arg0 = records[i + 1], arg1 = records[i + 2];
+                sequences.lazySet(slot, head + mask + 1);
+                head++;
+                count++;
+                switch (type) {
+                case MOUSE_DOWN:
+                    control.onMouseDown(arg0);
+                    break;
+                case MOUSE_UP:
+                    control.onMouseUp(arg0);
+                    break;
+                case MOUSE_MOVE:
+                    control.onMouseMove(arg0, arg1);
+                    break;
+                default:
+                    control.zoom(Float.intBitsToFloat(arg0));
+                    break;
+                }
+            }
+        } finally {
+            control.setLazyUpdate(lazyUpdate);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,57 @@
+package org.joml.camera;
+
+/**
+ * A {@link TileLevelPolicy} which chooses the coarsest level whose tiles have at least one texel per window pixel,
+ * like slippy maps do.
+ */
+public class PixelDensityTileLevels implements TileLevelPolicy {
+
+    /* Tolerance for scales which are exactly a power of two, so that rounding errors do not select a finer level */
+    private static final double EPSILON = 1E-6;
+
+    /**
+     * The edge length of a tile in texels.
+     */
+    public int tilePixels;
+
+    /**
+     * The coarsest level to choose.
+     */
+    public int minLevel;
+
+    /**
+     * The finest level to choose.
+     */
+    public int maxLevel;
+
+    /**
+     * @param tilePixels
+     *            the edge length of a tile in texels, such as <code>256</code>
+     * @param minLevel
+     *            the coarsest level to choose
+     * @param maxLevel
+     *            the finest level to choose
+     */
+    public PixelDensityTileLevels(int tilePixels, int minLevel, int maxLevel) {
+        if (tilePixels < 1) {
+            throw new IllegalArgumentException("tilePixels must be positive");
+        }
+        if (minLevel < 0 || maxLevel > TileCoverage.MAX_LEVEL || minLevel > maxLevel) {
+            throw new IllegalArgumentException("levels must satisfy 0 <= minLevel <= maxLevel <= " + TileCoverage.MAX_LEVEL);
+        }
+        this.tilePixels = tilePixels;
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+    }
+
+    public int level(float tileSize, float worldUnitsPerPixel) {
+        /* The smallest level L with tileSize / 2^L / tilePixels <= worldUnitsPerPixel */
+        double texelsPerPixel = tileSize / ((double) tilePixels * worldUnitsPerPixel);
+        if (!(texelsPerPixel > 1.0)) {
+            return minLevel;
+        }
+        double level = Math.ceil(Math.log(texelsPerPixel) / Math.log(2.0) - EPSILON);
+        return level >= maxLevel ? maxLevel : Math.max(minLevel, (int) level);
+    }
+
+}
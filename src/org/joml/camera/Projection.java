@@ -0,0 +1,93 @@
+package org.joml.camera;
+
+import org.joml.Matrix4f;
+
+/**
+ * A perspective projection of a camera.
+ * <p>
+ * Every change increments a {@link #getVersion() version} counter, so that anything derived from the projection, such
+ * as a {@link CameraFrustum}, only needs to be recomputed after an actual change.
+ */
+public class Projection {
+
+    private float fovy = (float) Math.toRadians(60.0);
+    private float aspect = 1.0f;
+    private float zNear = 0.1f;
+    private float zFar = 1000.0f;
+    private int version;
+    private final Matrix4f projection = new Matrix4f().setPerspective(fovy, aspect, zNear, zFar);
+
+    /**
+     * Set the perspective projection parameters.
+     * 
+     * @param fovy
+     *            the vertical field of view in radians
+     * @param aspect
+     *            the aspect ratio (i.e. width / height)
+     * @param zNear
+     *            the distance to the near clipping plane
+     * @param zFar
+     *            the distance to the far clipping plane
+     * @return this
+     */
+    public Projection setPerspective(float fovy, float aspect, float zNear, float zFar) {
+        if (this.fovy == fovy && this.aspect == aspect && this.zNear == zNear && this.zFar == zFar) {
+            return this;
+        }
+        this.fovy = fovy;
+        this.aspect = aspect;
+        this.zNear = zNear;
+        this.zFar = zFar;
+        projection.setPerspective(fovy, aspect, zNear, zFar);
+        version++;
+        return this;
+    }
+
+    /**
+     * Set the aspect ratio, for example after the window was resized.
+     * 
+     * @param aspect
+     *            the aspect ratio (i.e. width / height)
+     * @return this
+     */
+    public Projection setAspect(float aspect) {
+        return setPerspective(fovy, aspect, zNear, zFar);
+    }
+
+    public float getFovy() {
+        return fovy;
+    }
+
+    public float getAspect() {
+        return aspect;
+    }
+
+    public float getNear() {
+        return zNear;
+    }
+
+    public float getFar() {
+        return zFar;
+    }
+
+    /**
+     * Return a counter which changes whenever the projection changes.
+     * 
+     * @return the current version of the projection
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Apply the projection transformation to the given matrix by post-multiplying it.
+     * 
+     * @param mat
+     *          the matrix which gets post-multiplied by the projection matrix
+     * @return the supplied matrix
+     */
+    public Matrix4f projectionMatrix(Matrix4f mat) {
+        return mat.mul(projection);
+    }
+
+}
@@ -22,7 +22,7 @@
  */
 package org.joml.camera;
 
-public class ScalarMover {
+public strictfp class ScalarMover extends Mover {
 
     public double maxAcceleration = 200.0f;
     public double maxDeceleration = 200.0f;
@@ -30,10 +30,96 @@ public class ScalarMover {
     public double target;
     public double velocity;
 
+    /**
+     * Set the target value and {@link #wake() wake} this mover.
+     * 
+     * @param target
+     *            the new target value
+     */
+    public void setTarget(double target) {
+        this.target = target;
+        wake();
+    }
+
+    public boolean isSettled() {
+        return current == target && (smoothing == null || velocity == 0.0);
+    }
+
     public void update(float elapsedTimeInSeconds) {
+        if (smoothing != null) {
+            smooth(elapsedTimeInSeconds);
+            return;
+        }
+        step(elapsedTimeInSeconds);
+    }
+
+    /**
+     * Advance the simulation by as many steps of <code>fixedStep</code> seconds as fit into <code>seconds</code>, with
+     * the same result as invoking {@link #update(float)} that many times.
+     * <p>
+     * Instead of simulating each step, runs of steps with constant acceleration are computed in closed form, so the
+     * cost is logarithmic in the number of steps per acceleration phase. The result differs from stepwise updates only by
+     * the rounding error which the stepwise updates accumulate, which is in the order of <code>1E-15</code> times the
+     * distance travelled per step.
+     * <p>
+     * In order to match <code>update(float)</code> exactly, <code>fixedStep</code> should be a <code>float</code>
+     * value widened to <code>double</code>.
+     * <p>
+     * With a {@link #smoothing} strategy, all steps are computed in a single closed-form step.
+     * 
+     * @param seconds
+     *            the elapsed time in seconds
+     * @param fixedStep
+     *            the duration of a single step in seconds
+     * @return the remaining time in seconds which was too short for another step
+     */
+    public double advance(double seconds, double fixedStep) {
+        long steps = (long) (seconds / fixedStep);
+        double remaining = seconds - steps * fixedStep;
+        if (smoothing != null) {
+            if (steps > 0) {
+                smooth(steps * fixedStep);
+            }
+            return remaining;
+        }
+        while (steps > 0 && current != target) {
+            double currentToTarget = target - current;
+            double sign = currentToTarget < 0.0 ? -1 : 1;
+            double u = sign * velocity, r = sign * currentToTarget;
+            long n = BangBang.steps(u, r, maxAcceleration, maxDeceleration, fixedStep, steps - 1);
+            if (n > 0) {
+                double a = BangBang.decelerates(u, r, maxDeceleration) ? -maxDeceleration : maxAcceleration;
+                current += sign * BangBang.way(u, a, fixedStep, n);
+                velocity = sign * BangBang.velocity(u, a, fixedStep, n);
+            }
+            step(fixedStep);
+            steps -= n + 1;
+        }
+        return remaining;
+    }
+
+    private void smooth(double elapsedTimeInSeconds) {
+        if (current == target && velocity == 0.0) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.MOVER_UPDATES);
+        }
+        double[] state = smoothingState(1);
+        state[0] = current - target;
+        state[1] = velocity;
+        smoothing.step(state, 1, elapsedTimeInSeconds);
+        current = target + state[0];
+        velocity = state[1];
+    }
+
+    private void step(double elapsedTimeInSeconds) {
         if (current == target) {
             return;
         }
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.MOVER_UPDATES);
+        }
         double currentToTarget = target - current;
         double directStopDistance = (velocity * velocity) / (2.0 * maxDeceleration);
         double acceleration = 0.0;
@@ -50,6 +136,9 @@ public class ScalarMover {
         double way = velocity * elapsedTimeInSeconds;
         if (velocity * currentToTarget > 0.0 && Math.abs(way) > Math.abs(currentToTarget)) {
             /* We would move too far */
+            if (metrics != null) {
+                metrics.increment(CameraMetrics.MOVER_TARGET_CLAMPS);
+            }
             velocity = 0.0;
             current = target;
         } else {
@@ -57,4 +146,20 @@ public class ScalarMover {
         }
     }
 
+    /**
+     * Mix the state of this mover into the given hash.
+     * 
+     * @param hash
+     *            the hash so far
+     * @return the new hash
+     * @see StateChecksum
+     */
+    public long checksum(long hash) {
+        hash = StateChecksum.mix(hash, current);
+        hash = StateChecksum.mix(hash, target);
+        hash = StateChecksum.mix(hash, velocity);
+        hash = StateChecksum.mix(hash, maxAcceleration);
+        return StateChecksum.mix(hash, maxDeceleration);
+    }
+
 }
@@ -0,0 +1,174 @@
+package org.joml.camera;
+
+/**
+ * Integrates many {@link ScalarMover movers} at once, storing their state in flat <code>double[]</code> arrays with
+ * one value per mover.
+ * <p>
+ * {@link #update(float)} performs the same floating-point operations as {@link ScalarMover#update(float)} without a
+ * {@link ScalarMover#smoothing smoothing} strategy, so the results are bit-identical to updating each mover separately.
+ * <p>
+ * On JDK 17 and later, the multi-release JAR contains an implementation which updates several movers per instruction
+ * with the incubating Vector API. It is used when the <code>jdk.incubator.vector</code> module is resolved, i.e. when
+ * the JVM was started with <code>--add-modules jdk.incubator.vector</code>, and can be disabled with
+ * <code>-Djoml.camera.vectorize=false</code>. Otherwise the movers are updated one after another.
+ *
+ * @see #isVectorized()
+ */
+public class ScalarMoverBatch {
+
+    /**
+     * The current values. These will change after an invocation to {@link #update(float)}.
+     */
+    public final double[] current;
+
+    /**
+     * The desired target values. Set these to any value at any time.
+     */
+    public final double[] target;
+
+    /**
+     * The current velocities. MUST NOT be modified from outside.
+     */
+    public final double[] velocity;
+
+    /**
+     * The maximum acceleration of each mover.
+     */
+    public final double[] maxAcceleration;
+
+    /**
+     * The maximum deceleration of each mover.
+     */
+    public final double[] maxDeceleration;
+
+    private int size;
+
+    /**
+     * Create a new, empty batch which can hold up to <code>capacity</code> movers.
+     *
+     * @param capacity
+     *            the maximum number of movers
+     */
+    public ScalarMoverBatch(int capacity) {
+        current = new double[capacity];
+        target = new double[capacity];
+        velocity = new double[capacity];
+        maxAcceleration = new double[capacity];
+        maxDeceleration = new double[capacity];
+    }
+
+    /**
+     * @return <code>true</code> if {@link #update(float)} uses the Vector API on this JVM
+     */
+    public static boolean isVectorized() {
+        return BatchKernels.vectorized();
+    }
+
+    /**
+     * @return the number of movers in this batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the maximum number of movers in this batch
+     */
+    public int capacity() {
+        return current.length;
+    }
+
+    /**
+     * Add a new mover at value zero with the same default limits as a new {@link ScalarMover}.
+     *
+     * @return the index of the new mover
+     */
+    public int add() {
+        if (size == capacity()) {
+            throw new IllegalStateException("Batch is full");
+        }
+        int i = size++;
+        maxAcceleration[i] = 200.0f;
+        maxDeceleration[i] = 200.0f;
+        return i;
+    }
+
+    /**
+     * Add a new mover whose state and limits are copied from the given {@link ScalarMover}.
+     *
+     * @param mover
+     *            the mover to copy
+     * @return the index of the new mover
+     */
+    public int add(ScalarMover mover) {
+        int i = add();
+        current[i] = mover.current;
+        target[i] = mover.target;
+        velocity[i] = mover.velocity;
+        maxAcceleration[i] = mover.maxAcceleration;
+        maxDeceleration[i] = mover.maxDeceleration;
+        return i;
+    }
+
+    /**
+     * Update all movers based on the elapsed time since the last update.
+     *
+     * @param elapsedTimeInSeconds
+     *            the elapsed time in seconds since the last update
+     */
+    public void update(float elapsedTimeInSeconds) {
+        update(elapsedTimeInSeconds, 0, size);
+    }
+
+    /**
+     * Update the movers with indices in <code>[from, to)</code> based on the elapsed time since the last update.
+     * <p>
+     * Disjoint ranges may be updated concurrently from different threads.
+     *
+     * @param elapsedTimeInSeconds
+     *            the elapsed time in seconds since the last update
+     * @param from
+     *            the index of the first mover to update
+     * @param to
+     *            the index after the last mover to update
+     */
+    public void update(float elapsedTimeInSeconds, int from, int to) {
+        BatchKernels.update(this, elapsedTimeInSeconds, from, to);
+    }
+
+    /**
+     * Update the movers with indices in <code>[from, to)</code> one after another. This is the reference for the
+     * vectorized implementation, which also falls back to it for the remainder of a range.
+     */
+    strictfp void updateScalar(float elapsedTimeInSeconds, int from, int to) {
+        double dt = elapsedTimeInSeconds;
+        double[] cur = current, tgt = target, vel = velocity;
+        for (int i = from; i < to; i++) {
+            if (cur[i] == tgt[i]) {
+                continue;
+            }
+            double currentToTarget = tgt[i] - cur[i];
+            double v = vel[i];
+            double directStopDistance = (v * v) / (2.0 * maxDeceleration[i]);
+            double acceleration;
+            if (v * currentToTarget > 0.0 && directStopDistance >= Math.abs(currentToTarget)) {
+                /* Decelerate */
+                acceleration = (currentToTarget < 0.0 ? -1 : 1) * -maxDeceleration[i];
+            } else {
+                /* Accelerate */
+                acceleration = (currentToTarget < 0.0 ? -1 : 1) * maxAcceleration[i];
+            }
+            v += acceleration * dt;
+            double way = v * dt;
+            if (v * currentToTarget > 0.0 && Math.abs(way) > Math.abs(currentToTarget)) {
+                /* We would move too far */
+                vel[i] = 0.0;
+                cur[i] = tgt[i];
+            } else {
+                vel[i] = v;
+                cur[i] += way;
+            }
+        }
+    }
+
+}
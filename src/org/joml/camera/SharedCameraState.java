@@ -0,0 +1,154 @@
+package org.joml.camera;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.joml.Matrix4f;
+
+/**
+ * Shares the state of a {@link FreeCamera} or an {@link ArcBallCamera} with other processes on the same host through
+ * a memory-mapped file region of {@value #SIZE} bytes.
+ * <p>
+ * A single writer stores the complete camera state into the region, usually after every update of the camera. Any
+ * number of readers in any process map the same region and copy a consistent state into their own camera without
+ * locks and without system calls. A reader which only renders can {@link #readViewMatrix(Matrix4f) read the view
+ * matrix} alone.
+ * <p>
+ * Consistency is ensured by a sequence number at the start of the region (a "seqlock"): the writer makes it odd
+ * before and even again after writing, and a reader retries while the number is odd or changed during its read.
+ * Writing never waits for readers. A reader waits at most {@link #readTimeoutMillis} for a write to finish, so that
+ * a writer process which died while writing does not block it forever.
+ * <p>
+ * This is the baseline implementation, which cannot order the accesses to the region without the fences of JDK 9 and
+ * therefore always throws {@link UnsupportedOperationException}. The multi-release JAR replaces this class on JDK 9
+ * and later with the working implementation. Check {@link #isSupported()} before creating a shared state.
+ */
+public class SharedCameraState {
+
+    /**
+     * The size of a region in bytes.
+     */
+    public static final int SIZE = 256;
+
+    /**
+     * The time in milliseconds which a read waits for a write to finish before it fails.
+     */
+    public long readTimeoutMillis = 100L;
+
+    /**
+     * Return whether shared camera states work on this JVM, which requires JDK 9 or later and the multi-release JAR.
+     *
+     * @return <code>false</code> for this baseline implementation
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Map the region of {@value #SIZE} bytes at the given position of the given file, creating or growing the file if
+     * necessary.
+     *
+     * @param file
+     *            the file to map
+     * @param position
+     *            the position of the region in the file. Must be a multiple of 8
+     * @throws IOException
+     *            if the file cannot be opened or mapped
+     * @throws UnsupportedOperationException
+     *            if {@link #isSupported()} returns <code>false</code>
+     */
+    public SharedCameraState(File file, long position) throws IOException {
+        throw new UnsupportedOperationException("SharedCameraState requires JDK 9 or later");
+    }
+
+    /**
+     * Return the sequence number of the most recently written state, which readers can compare to the value returned
+     * by a previous read to skip unchanged states.
+     *
+     * @return the sequence number, which is odd while a state is being written and <code>0</code> before the first
+     *         write
+     */
+    public long getSequence() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write the state of the given {@link FreeCamera}: its time, position, rotation, velocities, accelerations and
+     * view matrix.
+     *
+     * @param camera
+     *            the camera to write
+     * @param time
+     *            the simulation time of the state
+     */
+    public void write(FreeCamera camera, double time) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write the state of the given {@link ArcBallCamera}: its time, the current value, target and velocity of all
+     * movers, the acceleration of the center mover and its view matrix.
+     *
+     * @param camera
+     *            the camera to write
+     * @param time
+     *            the simulation time of the state
+     */
+    public void write(ArcBallCamera camera, double time) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Copy the most recently written state into the given {@link FreeCamera}, waiting while it is being written.
+     *
+     * @param camera
+     *            will hold the state
+     * @return the sequence number of the state, or <code>0</code> if no state was written yet, in which case the
+     *         camera is not modified
+     * @throws IllegalStateException
+     *            if the state is still being written after {@link #readTimeoutMillis}
+     */
+    public long read(FreeCamera camera) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Copy the most recently written state into the given {@link ArcBallCamera}, waiting while it is being written.
+     *
+     * @param camera
+     *            will hold the state
+     * @return the sequence number of the state, or <code>0</code> if no state was written yet, in which case the
+     *         camera is not modified
+     * @throws IllegalStateException
+     *            if the state is still being written after {@link #readTimeoutMillis}
+     */
+    public long read(ArcBallCamera camera) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Copy the view matrix of the most recently written state into <code>dest</code>, waiting while it is being
+     * written.
+     *
+     * @param dest
+     *            will hold the view matrix
+     * @return the sequence number of the state, or <code>0</code> if no state was written yet, in which case
+     *         <code>dest</code> is not modified
+     * @throws IllegalStateException
+     *            if the state is still being written after {@link #readTimeoutMillis}
+     */
+    public long readViewMatrix(Matrix4f dest) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Close the file. The region stays mapped until this object is garbage collected.
+     *
+     * @throws IOException
+     *            if the file cannot be closed
+     */
+    public void close() throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+}
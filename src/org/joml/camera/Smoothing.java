@@ -0,0 +1,60 @@
+package org.joml.camera;
+
+/**
+ * A strategy which moves a {@link Mover} towards its target instead of the mover's default maximum
+ * acceleration/deceleration ("bang-bang") integration.
+ * <p>
+ * Implementations solve their differential equation in closed form for a target which stays constant during a step,
+ * so that a step of any length is exact and stable and costs the same. Implementations hold no per-mover state, so
+ * one instance can be shared by many movers.
+ * <p>
+ * The state of a mover with <code>dims</code> components is passed as an array whose first <code>dims</code>
+ * elements hold the offsets of the current value from the target and whose next <code>dims</code> elements hold the
+ * velocities.
+ */
+public abstract strictfp class Smoothing {
+
+    /* ln(2), which converts a half-life into a decay rate */
+    static final double LN2 = 0.6931471805599453;
+
+    /**
+     * Once all offsets and velocities are below this value, they are set to zero, so that the mover settles exactly on
+     * its target.
+     */
+    public double settleThreshold = 1E-5;
+
+    /**
+     * Advance the given state by <code>dt</code> seconds.
+     *
+     * @param state
+     *            the offsets from the target followed by the velocities. Will hold the new state
+     * @param dims
+     *            the number of components
+     * @param dt
+     *            the elapsed time in seconds
+     */
+    public final void step(double[] state, int dims, double dt) {
+        integrate(state, dims, dt);
+        for (int i = 0; i < 2 * dims; i++) {
+            if (Math.abs(state[i]) >= settleThreshold) {
+                return;
+            }
+        }
+        for (int i = 0; i < 2 * dims; i++) {
+            state[i] = 0.0;
+        }
+    }
+
+    /**
+     * Advance the given state by <code>dt</code> seconds in closed form.
+     *
+     * @param state
+     *            the offsets from the target followed by the velocities. Will hold the new state
+     * @param dims
+     *            the number of components
+     * @param dt
+     *            the elapsed time in seconds
+     */
+    protected abstract void integrate(double[] state, int dims, double dt);
+
+}
@@ -0,0 +1,97 @@
+package org.joml.camera;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Hashes the exact bit patterns of simulation state, so that machines running the same simulation in lockstep can
+ * detect a desync by comparing a single <code>long</code> per tick.
+ * <p>
+ * {@link ScalarMover}, {@link ArcRotor}, {@link Vector3Mover}, {@link FreeCamera} and {@link ArcBallCamera} are
+ * deterministic: given the same initial state and the same sequence of inputs and elapsed times, their
+ * <code>update</code> methods produce bit-identical results on every JVM, independent of the JIT tier and of JOML's
+ * <code>joml.fastmath</code> and <code>joml.useMathFma</code> options. Each of them provides a <code>checksum(long)</code>
+ * method which mixes its state into the given hash, so that the checksums of several objects can be chained:
+ *
+ * <pre>
+ * long hash = camera.checksum(mover.checksum(StateChecksum.SEED));
+ * </pre>
+ */
+public final class StateChecksum {
+
+    /**
+     * The initial value of a checksum.
+     */
+    public static final long SEED = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+
+    private StateChecksum() {
+    }
+
+    /**
+     * Mix the given bits into the given hash.
+     *
+     * @param hash
+     *            the hash so far
+     * @param bits
+     *            the bits to mix in
+     * @return the new hash
+     */
+    public static long mix(long hash, long bits) {
+        return (hash ^ bits) * PRIME;
+    }
+
+    /**
+     * Mix the bit pattern of the given value into the given hash.
+     *
+     * @param hash
+     *            the hash so far
+     * @param v
+     *            the value to mix in
+     * @return the new hash
+     */
+    public static long mix(long hash, double v) {
+        return mix(hash, Double.doubleToLongBits(v));
+    }
+
+    /**
+     * Mix the bit pattern of the given value into the given hash.
+     *
+     * @param hash
+     *            the hash so far
+     * @param v
+     *            the value to mix in
+     * @return the new hash
+     */
+    public static long mix(long hash, float v) {
+        return mix(hash, (long) Float.floatToIntBits(v));
+    }
+
+    /**
+     * Mix the bit patterns of the components of the given vector into the given hash.
+     *
+     * @param hash
+     *            the hash so far
+     * @param v
+     *            the vector to mix in
+     * @return the new hash
+     */
+    public static long mix(long hash, Vector3f v) {
+        return mix(mix(mix(hash, v.x), v.y), v.z);
+    }
+
+    /**
+     * Mix the bit patterns of the components of the given quaternion into the given hash.
+     *
+     * @param hash
+     *            the hash so far
+     * @param q
+     *            the quaternion to mix in
+     * @return the new hash
+     */
+    public static long mix(long hash, Quaternionf q) {
+        return mix(mix(mix(mix(hash, q.x), q.y), q.z), q.w);
+    }
+
+}
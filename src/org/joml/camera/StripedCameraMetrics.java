@@ -0,0 +1,170 @@
+package org.joml.camera;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free {@link CameraMetrics} implementation which spreads its counters over several stripes, so that threads
+ * updating cameras concurrently rarely contend on the same cache line.
+ * <p>
+ * Histograms count values in buckets of powers of two: bucket <code>0</code> holds values up to <code>0</code>, and
+ * bucket <code>b</code> holds values in <code>[2<sup>b-1</sup>, 2<sup>b</sup>)</code>. Reading sums up all stripes, so
+ * values read while other threads report are not a consistent snapshot of all counters.
+ */
+public class StripedCameraMetrics implements CameraMetrics {
+
+    /** The number of buckets of each histogram. */
+    public static final int BUCKETS = 64;
+
+    /* Each histogram holds its count and sum followed by its buckets */
+    private static final int HISTOGRAM_SIZE = 2 + BUCKETS;
+
+    /* Every block is followed by at least sixteen longs, i.e. two cache lines, so that stripes never share a line */
+    private static final int PADDING = 16;
+    private static final int STRIPE_SIZE = pad(COUNTERS) + pad(HISTOGRAMS * HISTOGRAM_SIZE);
+    private static final int HISTOGRAMS_OFFSET = pad(COUNTERS);
+
+    private final int stripeMask;
+    private final AtomicLongArray values;
+
+    /**
+     * Create a new {@link StripedCameraMetrics} with two stripes per available processor.
+     */
+    public StripedCameraMetrics() {
+        this(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a new {@link StripedCameraMetrics} with at least the given number of stripes.
+     *
+     * @param stripes
+     *            the minimum number of stripes, which is rounded up to a power of two
+     */
+    public StripedCameraMetrics(int stripes) {
+        if (stripes < 1 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("stripes must be in [1, 65536]");
+        }
+        int n = Integer.highestOneBit(stripes);
+        if (n < stripes) {
+            n <<= 1;
+        }
+        stripeMask = n - 1;
+        /* Leave padding before the first stripe, too */
+        values = new AtomicLongArray(PADDING + n * STRIPE_SIZE);
+    }
+
+    private static int pad(int size) {
+        return (size + 2 * PADDING - 1) / PADDING * PADDING;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return PADDING + ((int) (id ^ id >>> 16) & stripeMask) * STRIPE_SIZE;
+    }
+
+    /**
+     * Return the bucket of the histograms which counts the given value.
+     *
+     * @param value
+     *            the value
+     * @return the bucket
+     */
+    public static int bucket(long value) {
+        return value <= 0L ? 0 : 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    public void increment(int counter) {
+        values.getAndIncrement(stripe() + counter);
+    }
+
+    public void record(int histogram, long value) {
+        int o = stripe() + HISTOGRAMS_OFFSET + histogram * HISTOGRAM_SIZE;
+        values.getAndIncrement(o);
+        values.getAndAdd(o + 1, value);
+        values.getAndIncrement(o + 2 + bucket(value));
+    }
+
+    private long sum(int offset) {
+        long sum = 0L;
+        for (int s = 0; s <= stripeMask; s++) {
+            sum += values.get(PADDING + s * STRIPE_SIZE + offset);
+        }
+        return sum;
+    }
+
+    /**
+     * Return the value of the given counter.
+     *
+     * @param counter
+     *            one of the counter constants of {@link CameraMetrics}
+     * @return the value of the counter
+     */
+    public long count(int counter) {
+        return sum(counter);
+    }
+
+    /**
+     * Return the number of values recorded in the given histogram.
+     *
+     * @param histogram
+     *            one of the histogram constants of {@link CameraMetrics}
+     * @return the number of values
+     */
+    public long histogramCount(int histogram) {
+        return sum(HISTOGRAMS_OFFSET + histogram * HISTOGRAM_SIZE);
+    }
+
+    /**
+     * Return the sum of all values recorded in the given histogram.
+     *
+     * @param histogram
+     *            one of the histogram constants of {@link CameraMetrics}
+     * @return the sum of the values
+     */
+    public long histogramSum(int histogram) {
+        return sum(HISTOGRAMS_OFFSET + histogram * HISTOGRAM_SIZE + 1);
+    }
+
+    /**
+     * Return the number of values recorded in the given bucket of the given histogram.
+     *
+     * @param histogram
+     *            one of the histogram constants of {@link CameraMetrics}
+     * @param bucket
+     *            the bucket in <code>[0, {@value #BUCKETS})</code>
+     * @return the number of values in the bucket
+     * @see #bucket(long)
+     */
+    public long histogramBucket(int histogram, int bucket) {
+        return sum(HISTOGRAMS_OFFSET + histogram * HISTOGRAM_SIZE + 2 + bucket);
+    }
+
+    /**
+     * Return an upper bound of the given percentile of the values recorded in the given histogram, which is exact up
+     * to the resolution of the buckets.
+     *
+     * @param histogram
+     *            one of the histogram constants of {@link CameraMetrics}
+     * @param percentile
+     *            the percentile in <code>[0, 100]</code>
+     * @return the exclusive upper bound of the bucket which holds the percentile, or <code>0</code> if no value was
+     *         recorded
+     */
+    public long percentile(int histogram, double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0L;
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] = histogramBucket(histogram, b);
+            total += counts[b];
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0L;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank && seen > 0L) {
+                return b == 0 ? 1L : b == BUCKETS - 1 ? Long.MAX_VALUE : 1L << b;
+            }
+        }
+        return 0L;
+    }
+
+}
@@ -0,0 +1,488 @@
+package org.joml.camera;
+
+import java.util.Arrays;
+
+import org.joml.Vector2f;
+import org.joml.Vector4f;
+
+/**
+ * Maintains the set of tiles covered by a possibly rotated view of an {@link OrthoCameraControl}, and reports which
+ * tiles were added and removed since the previous query, for example to load and evict the tiles of a map or a large
+ * image.
+ * <p>
+ * Tiles are squares on a grid in world coordinates. The grid of level <code>L</code> has an edge length of
+ * <code>tileSize / 2<sup>L</sup></code>, and tile <code>(x, y)</code> covers <code>[x * size, (x + 1) * size)</code>
+ * horizontally and <code>[y * size, (y + 1) * size)</code> vertically. A {@link TileLevelPolicy} chooses the level
+ * from the scale of the view.
+ * <p>
+ * A tile is covered if its interior intersects the view quad, so tiles which only touch the view with an edge or a
+ * corner are not reported, and the corners of a rotated view do not pull in the tiles of its bounding rectangle. Each
+ * tile is identified by a <code>long</code> {@link #key(int, int, int) key} holding its level and coordinates, so
+ * that no objects are allocated per tile. After the first queries, {@link #update(OrthoCameraControl)} does not
+ * allocate unless the number of covered tiles grows.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class TileCoverage {
+
+    /** The finest level a {@link TileLevelPolicy} may choose. */
+    public static final int MAX_LEVEL = 31;
+
+    /** The smallest tile coordinate. Tiles are clipped to <code>[MIN_COORDINATE, MAX_COORDINATE]</code>. */
+    public static final int MIN_COORDINATE = -(1 << 28);
+
+    /** The largest tile coordinate. */
+    public static final int MAX_COORDINATE = (1 << 28) - 1;
+
+    /** The maximum number of tiles a single view may cover. */
+    public static final int MAX_TILES = 1 << 22;
+
+    /* Keys are never negative, so this marks free slots of the hash tables */
+    private static final long EMPTY = -1L;
+
+    private final float tileSize;
+    private final TileLevelPolicy levels;
+
+    private boolean bounded;
+    private float boundsMinX, boundsMinY, boundsMaxX, boundsMaxY;
+
+    /* The parameters of the last query, to detect that nothing changed */
+    private boolean valid;
+    private int level;
+    private float cornerX, cornerY, xSpanX, xSpanY, ySpanX, ySpanY;
+
+    /* The covered tiles in row order, and the same keys in an open-addressing hash table with linear probing */
+    private long[] tiles = new long[64];
+    private int size;
+    private long[] table = emptyTable(128);
+    /* The tiles of the query in progress, which are swapped with the above afterwards */
+    private long[] nextTiles = new long[64];
+    private int nextSize;
+    private long[] nextTable = emptyTable(128);
+
+    private long[] added = new long[64];
+    private int addedCount;
+    private long[] removed = new long[64];
+    private int removedCount;
+
+    private final double[] quad = new double[8];
+    private final Vector2f corner = new Vector2f(), xSpan = new Vector2f(), ySpan = new Vector2f();
+
+    /**
+     * @param tileSize
+     *            the edge length of a tile of level <code>0</code> in world coordinates
+     * @param levels
+     *            chooses the level of the tiles from the scale of the view
+     */
+    public TileCoverage(float tileSize, TileLevelPolicy levels) {
+        if (!(tileSize > 0.0f)) {
+            throw new IllegalArgumentException("tileSize must be positive");
+        }
+        this.tileSize = tileSize;
+        this.levels = levels;
+    }
+
+    /**
+     * Return the key of the given tile.
+     * <p>
+     * The key holds the level in bits 58 to 62, the x coordinate in bits 29 to 57 and the y coordinate in bits 0 to 28,
+     * so keys are never negative.
+     *
+     * @param level
+     *            the level in <code>[0, {@value #MAX_LEVEL}]</code>
+     * @param x
+     *            the x coordinate in <code>[{@link #MIN_COORDINATE}, {@link #MAX_COORDINATE}]</code>
+     * @param y
+     *            the y coordinate in <code>[{@link #MIN_COORDINATE}, {@link #MAX_COORDINATE}]</code>
+     * @return the key
+     */
+    public static long key(int level, int x, int y) {
+        return (long) level << 58 | ((long) x & 0x1FFFFFFFL) << 29 | (long) y & 0x1FFFFFFFL;
+    }
+
+    /**
+     * @param key
+     *            a tile key
+     * @return the level of the tile
+     */
+    public static int level(long key) {
+        return (int) (key >>> 58);
+    }
+
+    /**
+     * @param key
+     *            a tile key
+     * @return the x coordinate of the tile
+     */
+    public static int x(long key) {
+        return (int) (key << 6 >> 35);
+    }
+
+    /**
+     * @param key
+     *            a tile key
+     * @return the y coordinate of the tile
+     */
+    public static int y(long key) {
+        return (int) (key << 35 >> 35);
+    }
+
+    /**
+     * Store the area of the given tile in world coordinates into <code>dest</code>.
+     *
+     * @param key
+     *            a tile key
+     * @param dest
+     *            will hold the area as {x: minX, y: minY, z: maxX, w: maxY}
+     * @return dest
+     */
+    public Vector4f bounds(long key, Vector4f dest) {
+        double size = tileSize / (double) (1L << level(key));
+        int x = x(key), y = y(key);
+        return dest.set((float) (x * size), (float) (y * size), (float) ((x + 1) * size), (float) ((y + 1) * size));
+    }
+
+    /**
+     * Only report tiles which intersect the given area in world coordinates, such as the extent of an image.
+     *
+     * @param minX
+     *            the minimum x coordinate
+     * @param minY
+     *            the minimum y coordinate
+     * @param maxX
+     *            the maximum x coordinate
+     * @param maxY
+     *            the maximum y coordinate
+     */
+    public void setBounds(float minX, float minY, float maxX, float maxY) {
+        bounded = true;
+        boundsMinX = minX;
+        boundsMinY = minY;
+        boundsMaxX = maxX;
+        boundsMaxY = maxY;
+        valid = false;
+    }
+
+    /**
+     * Report tiles anywhere on the plane, which is the default.
+     */
+    public void clearBounds() {
+        bounded = false;
+        valid = false;
+    }
+
+    /**
+     * Compute the tiles covered by the current view of the given control.
+     *
+     * @param control
+     *            the control whose view to cover
+     * @return whether any tiles were added or removed
+     * @see #update(float, float, float, float, float, float, float)
+     */
+    public boolean update(OrthoCameraControl control) {
+        control.viewSpan(corner, xSpan, ySpan);
+        return update(corner.x, corner.y, xSpan.x, xSpan.y, ySpan.x, ySpan.y, control.worldUnitsPerPixel());
+    }
+
+    /**
+     * Compute the tiles covered by the given parallelogram, in the form returned by
+     * {@link OrthoCameraControl#viewSpan(Vector2f, Vector2f, Vector2f)}.
+     * <p>
+     * Afterwards, {@link #addedCount()} and {@link #removedCount()} tell how many tiles were added and removed since
+     * the previous update. If neither the view nor the level changed, this returns immediately. If the update throws,
+     * the covered tiles stay those of the previous successful update.
+     *
+     * @param cornerX
+     *            the x coordinate of a corner of the view
+     * @param cornerY
+     *            the y coordinate of a corner of the view
+     * @param xSpanX
+     *            the x coordinate of the edge from the corner along the window's x axis
+     * @param xSpanY
+     *            the y coordinate of the edge from the corner along the window's x axis
+     * @param ySpanX
+     *            the x coordinate of the edge from the corner along the window's y axis
+     * @param ySpanY
+     *            the y coordinate of the edge from the corner along the window's y axis
+     * @param worldUnitsPerPixel
+     *            the edge length of a window pixel in world coordinates, which is passed to the
+     *            {@link TileLevelPolicy}
+     * @return whether any tiles were added or removed
+     * @throws IllegalStateException
+     *            if the level is out of range, or if the view exceeds the tile coordinates or covers too many tiles of
+     *            the level
+     */
+    public boolean update(float cornerX, float cornerY, float xSpanX, float xSpanY, float ySpanX, float ySpanY,
+            float worldUnitsPerPixel) {
+        int level = levels.level(tileSize, worldUnitsPerPixel);
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalStateException("level " + level + " is not in [0, " + MAX_LEVEL + "]");
+        }
+        addedCount = 0;
+        removedCount = 0;
+        if (valid && level == this.level && cornerX == this.cornerX && cornerY == this.cornerY && xSpanX == this.xSpanX
+                && xSpanY == this.xSpanY && ySpanX == this.ySpanX && ySpanY == this.ySpanY) {
+            return false;
+        }
+        double[] q = quad;
+        q[0] = cornerX;
+        q[1] = cornerY;
+        q[2] = (double) cornerX + xSpanX;
+        q[3] = (double) cornerY + xSpanY;
+        q[4] = (double) cornerX + xSpanX + ySpanX;
+        q[5] = (double) cornerY + xSpanY + ySpanY;
+        q[6] = (double) cornerX + ySpanX;
+        q[7] = (double) cornerY + ySpanY;
+        rasterize(level);
+        diff();
+        /* Only remember the view once it was covered, so that a failed update is not mistaken for an unchanged one */
+        this.level = level;
+        this.cornerX = cornerX;
+        this.cornerY = cornerY;
+        this.xSpanX = xSpanX;
+        this.xSpanY = xSpanY;
+        this.ySpanX = ySpanX;
+        this.ySpanY = ySpanY;
+        valid = true;
+        return addedCount > 0 || removedCount > 0;
+    }
+
+    /**
+     * Fill {@link #nextTiles} with the tiles whose interior intersects the quad, row by row.
+     */
+    private void rasterize(int level) {
+        double size = tileSize / (double) (1L << level);
+        double[] q = quad;
+        double minY = Math.min(Math.min(q[1], q[3]), Math.min(q[5], q[7]));
+        double maxY = Math.max(Math.max(q[1], q[3]), Math.max(q[5], q[7]));
+        double minX = Math.min(Math.min(q[0], q[2]), Math.min(q[4], q[6]));
+        double maxX = Math.max(Math.max(q[0], q[2]), Math.max(q[4], q[6]));
+        long firstRow = first(minY, size), lastRow = last(minY, maxY, size);
+        long firstColumn = first(minX, size), lastColumn = last(minX, maxX, size);
+        if (bounded) {
+            firstRow = Math.max(firstRow, first(boundsMinY, size));
+            lastRow = Math.min(lastRow, last(boundsMinY, boundsMaxY, size));
+            firstColumn = Math.max(firstColumn, first(boundsMinX, size));
+            lastColumn = Math.min(lastColumn, last(boundsMinX, boundsMaxX, size));
+        }
+        nextSize = 0;
+        if (!(minY <= maxY && minX <= maxX) || firstRow > lastRow || firstColumn > lastColumn) {
+            return;
+        }
+        if (firstRow < MIN_COORDINATE || lastRow > MAX_COORDINATE || firstColumn < MIN_COORDINATE || lastColumn > MAX_COORDINATE) {
+            throw new IllegalStateException("view exceeds the tile coordinates of level " + level);
+        }
+        if ((lastRow - firstRow + 1) * (lastColumn - firstColumn + 1) > MAX_TILES) {
+            throw new IllegalStateException("view covers too many tiles of level " + level);
+        }
+        for (long row = firstRow; row <= lastRow; row++) {
+            double y0 = row * size, y1 = y0 + size;
+            /* The horizontal extent of the part of the quad within this row */
+            double left = Double.POSITIVE_INFINITY, right = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < 8; i += 2) {
+                double px = q[i], py = q[i + 1];
+                double qx = q[(i + 2) & 7], qy = q[(i + 3) & 7];
+                if (py >= y0 && py <= y1) {
+                    left = Math.min(left, px);
+                    right = Math.max(right, px);
+                }
+                if (py < y0 != qy < y0 && py != y0 && qy != y0) {
+                    double x = px + (y0 - py) * (qx - px) / (qy - py);
+                    left = Math.min(left, x);
+                    right = Math.max(right, x);
+                }
+                if (py < y1 != qy < y1 && py != y1 && qy != y1) {
+                    double x = px + (y1 - py) * (qx - px) / (qy - py);
+                    left = Math.min(left, x);
+                    right = Math.max(right, x);
+                }
+            }
+            if (!(left <= right)) {
+                continue;
+            }
+            long from = Math.max(firstColumn, first(left, size)), to = Math.min(lastColumn, last(left, right, size));
+            for (long column = from; column <= to; column++) {
+                if (nextSize == nextTiles.length) {
+                    nextTiles = grow(nextTiles);
+                }
+                nextTiles[nextSize++] = key(level, (int) column, (int) row);
+            }
+        }
+    }
+
+    /**
+     * Return the first tile coordinate whose interior intersects the range starting at <code>min</code>.
+     */
+    private static long first(double min, double size) {
+        return (long) Math.floor(min / size);
+    }
+
+    /**
+     * Return the last tile coordinate whose interior intersects <code>[min, max]</code>, which is the first one if the
+     * range is empty or ends on a tile boundary.
+     */
+    private static long last(double min, double max, double size) {
+        return Math.max((long) Math.floor(min / size), (long) Math.ceil(max / size) - 1);
+    }
+
+    /**
+     * Compare {@link #nextTiles} against the current tiles, fill {@link #added} and {@link #removed}, and make the next
+     * tiles the current ones.
+     */
+    private void diff() {
+        int capacity = nextTable.length;
+        if (capacity < 2 * nextSize) {
+            while (capacity < 2 * nextSize) {
+                capacity <<= 1;
+            }
+            nextTable = emptyTable(capacity);
+        } else {
+            Arrays.fill(nextTable, EMPTY);
+        }
+        for (int i = 0; i < nextSize; i++) {
+            long key = nextTiles[i];
+            insert(nextTable, key);
+            if (!contains(table, key)) {
+                if (addedCount == added.length) {
+                    added = grow(added);
+                }
+                added[addedCount++] = key;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            long key = tiles[i];
+            if (!contains(nextTable, key)) {
+                if (removedCount == removed.length) {
+                    removed = grow(removed);
+                }
+                removed[removedCount++] = key;
+            }
+        }
+        long[] t = tiles;
+        tiles = nextTiles;
+        nextTiles = t;
+        size = nextSize;
+        t = table;
+        table = nextTable;
+        nextTable = t;
+    }
+
+    private static long[] emptyTable(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static long[] grow(long[] array) {
+        long[] grown = new long[2 * array.length];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32) & mask;
+    }
+
+    private static void insert(long[] table, long key) {
+        int mask = table.length - 1;
+        int i = slot(key, mask);
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = key;
+    }
+
+    private static boolean contains(long[] table, long key) {
+        int mask = table.length - 1;
+        for (int i = slot(key, mask);; i = (i + 1) & mask) {
+            long k = table[i];
+            if (k == key) {
+                return true;
+            }
+            if (k == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the level of the covered tiles
+     */
+    public int level() {
+        return level;
+    }
+
+    /**
+     * @return the number of covered tiles
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return a covered tile. The tiles are ordered by row and then by column.
+     *
+     * @param i
+     *            the index in <code>[0, {@link #size()})</code>
+     * @return the key of the tile
+     */
+    public long tile(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException(i + " >= " + size);
+        }
+        return tiles[i];
+    }
+
+    /**
+     * @param key
+     *            a tile key
+     * @return whether the tile is covered
+     */
+    public boolean contains(long key) {
+        return key >= 0L && contains(table, key);
+    }
+
+    /**
+     * @return the number of tiles which were added by the last update
+     */
+    public int addedCount() {
+        return addedCount;
+    }
+
+    /**
+     * Return a tile which was added by the last update.
+     *
+     * @param i
+     *            the index in <code>[0, {@link #addedCount()})</code>
+     * @return the key of the tile
+     */
+    public long added(int i) {
+        if (i >= addedCount) {
+            throw new IndexOutOfBoundsException(i + " >= " + addedCount);
+        }
+        return added[i];
+    }
+
+    /**
+     * @return the number of tiles which were removed by the last update
+     */
+    public int removedCount() {
+        return removedCount;
+    }
+
+    /**
+     * Return a tile which was removed by the last update.
+     *
+     * @param i
+     *            the index in <code>[0, {@link #removedCount()})</code>
+     * @return the key of the tile
+     */
+    public long removed(int i) {
+        if (i >= removedCount) {
+            throw new IndexOutOfBoundsException(i + " >= " + removedCount);
+        }
+        return removed[i];
+    }
+
+}
@@ -0,0 +1,24 @@
+package org.joml.camera;
+
+/**
+ * Chooses the level of detail of the tiles which {@link TileCoverage} reports for a view.
+ * <p>
+ * Levels form a quadtree: a tile of level <code>L</code> has an edge length of <code>tileSize / 2<sup>L</sup></code>
+ * in world coordinates, so each level splits every tile of the previous level into four.
+ *
+ * @see PixelDensityTileLevels
+ */
+public interface TileLevelPolicy {
+
+    /**
+     * Choose the level of the tiles to show at the given scale.
+     *
+     * @param tileSize
+     *            the edge length of a tile of level <code>0</code> in world coordinates
+     * @param worldUnitsPerPixel
+     *            the edge length of a window pixel in world coordinates
+     * @return the level in <code>[0, {@value TileCoverage#MAX_LEVEL}]</code>
+     */
+    int level(float tileSize, float worldUnitsPerPixel);
+
+}
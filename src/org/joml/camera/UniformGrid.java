@@ -0,0 +1,212 @@
+package org.joml.camera;
+
+/**
+ * An {@link OcclusionIndex} over axis-aligned boxes which are sorted into the cells of a uniform grid.
+ * <p>
+ * A ray only tests the boxes of the cells it traverses, walking the cells front to back and stopping at the first
+ * cell which contains a hit. The grid is immutable after construction, so queries are allocation-free and can run
+ * concurrently.
+ * <p>
+ * The cell size should be in the order of the typical box size: larger cells test more boxes per cell, smaller cells
+ * reference each box from more cells.
+ */
+public class UniformGrid implements OcclusionIndex {
+
+    /* Six floats per box: min x, y, z followed by max x, y, z */
+    private final float[] boxes;
+    private final float minX, minY, minZ, maxX, maxY, maxZ;
+    private final float cellSize, invCellSize;
+    private final int sizeX, sizeY, sizeZ;
+    /* The boxes of cell i are cellBoxes[cellStart[i]] up to (excluding) cellBoxes[cellStart[i + 1]] */
+    private final int[] cellStart;
+    private final int[] cellBoxes;
+
+    /**
+     * Build a grid over the given boxes.
+     *
+     * @param boxes
+     *            six floats per box, the minimum x, y and z coordinates followed by the maximum x, y and z coordinates.
+     *            The values are copied
+     * @param count
+     *            the number of boxes
+     * @param cellSize
+     *            the edge length of a grid cell
+     */
+    public UniformGrid(float[] boxes, int count, float cellSize) {
+        if (!(cellSize > 0.0f)) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+        if (count < 0 || boxes.length < 6 * count) {
+            throw new IllegalArgumentException("boxes must hold six floats per box");
+        }
+        this.boxes = new float[6 * count];
+        System.arraycopy(boxes, 0, this.boxes, 0, 6 * count);
+        this.cellSize = cellSize;
+        this.invCellSize = 1.0f / cellSize;
+        float x0 = Float.POSITIVE_INFINITY, y0 = Float.POSITIVE_INFINITY, z0 = Float.POSITIVE_INFINITY;
+        float x1 = Float.NEGATIVE_INFINITY, y1 = Float.NEGATIVE_INFINITY, z1 = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            int o = 6 * i;
+            if (boxes[o] > boxes[o + 3] || boxes[o + 1] > boxes[o + 4] || boxes[o + 2] > boxes[o + 5]) {
+                throw new IllegalArgumentException("box " + i + " has a minimum greater than its maximum");
+            }
+            x0 = Math.min(x0, boxes[o]);
+            y0 = Math.min(y0, boxes[o + 1]);
+            z0 = Math.min(z0, boxes[o + 2]);
+            x1 = Math.max(x1, boxes[o + 3]);
+            y1 = Math.max(y1, boxes[o + 4]);
+            z1 = Math.max(z1, boxes[o + 5]);
+        }
+        if (count == 0) {
+            x0 = y0 = z0 = x1 = y1 = z1 = 0.0f;
+        }
+        minX = x0;
+        minY = y0;
+        minZ = z0;
+        maxX = x1;
+        maxY = y1;
+        maxZ = z1;
+        sizeX = Math.max(1, (int) Math.ceil((x1 - x0) * invCellSize));
+        sizeY = Math.max(1, (int) Math.ceil((y1 - y0) * invCellSize));
+        sizeZ = Math.max(1, (int) Math.ceil((z1 - z0) * invCellSize));
+        long cells = (long) sizeX * sizeY * sizeZ;
+        if (cells >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many cells, increase cellSize");
+        }
+        /* Count the boxes per cell, turn the counts into start offsets and then sort the boxes in */
+        cellStart = new int[(int) cells + 1];
+        long references = 0;
+        for (int i = 0; i < count; i++) {
+            int o = 6 * i;
+            int ix0 = cellX(boxes[o]), iy0 = cellY(boxes[o + 1]), iz0 = cellZ(boxes[o + 2]);
+            int ix1 = cellX(boxes[o + 3]), iy1 = cellY(boxes[o + 4]), iz1 = cellZ(boxes[o + 5]);
+            for (int z = iz0; z <= iz1; z++) {
+                for (int y = iy0; y <= iy1; y++) {
+                    for (int x = ix0; x <= ix1; x++) {
+                        cellStart[cell(x, y, z) + 1]++;
+                    }
+                }
+            }
+            references += (long) (ix1 - ix0 + 1) * (iy1 - iy0 + 1) * (iz1 - iz0 + 1);
+        }
+        if (references >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many cell references, increase cellSize");
+        }
+        for (int i = 1; i < cellStart.length; i++) {
+            cellStart[i] += cellStart[i - 1];
+        }
+        cellBoxes = new int[(int) references];
+        int[] fill = new int[(int) cells];
+        for (int i = 0; i < count; i++) {
+            int o = 6 * i;
+            int ix0 = cellX(boxes[o]), iy0 = cellY(boxes[o + 1]), iz0 = cellZ(boxes[o + 2]);
+            int ix1 = cellX(boxes[o + 3]), iy1 = cellY(boxes[o + 4]), iz1 = cellZ(boxes[o + 5]);
+            for (int z = iz0; z <= iz1; z++) {
+                for (int y = iy0; y <= iy1; y++) {
+                    for (int x = ix0; x <= ix1; x++) {
+                        int c = cell(x, y, z);
+                        cellBoxes[cellStart[c] + fill[c]++] = i;
+                    }
+                }
+            }
+        }
+    }
+
+    private int cellX(float x) {
+        return Math.min(sizeX - 1, Math.max(0, (int) ((x - minX) * invCellSize)));
+    }
+
+    private int cellY(float y) {
+        return Math.min(sizeY - 1, Math.max(0, (int) ((y - minY) * invCellSize)));
+    }
+
+    private int cellZ(float z) {
+        return Math.min(sizeZ - 1, Math.max(0, (int) ((z - minZ) * invCellSize)));
+    }
+
+    private int cell(int x, int y, int z) {
+        return (z * sizeY + y) * sizeX + x;
+    }
+
+    public float castRay(float originX, float originY, float originZ, float dirX, float dirY, float dirZ, float maxDistance) {
+        float invX = 1.0f / dirX, invY = 1.0f / dirY, invZ = 1.0f / dirZ;
+        /* Clip the ray against the bounds of the grid, treating a ray parallel to a slab separately to avoid 0 * inf */
+        float tEnter = 0.0f, tExit = maxDistance;
+        if (dirX != 0.0f) {
+            float t0 = (minX - originX) * invX, t1 = (maxX - originX) * invX;
+            tEnter = Math.max(tEnter, Math.min(t0, t1));
+            tExit = Math.min(tExit, Math.max(t0, t1));
+        } else if (originX < minX || originX > maxX) {
+            return maxDistance;
+        }
+        if (dirY != 0.0f) {
+            float t0 = (minY - originY) * invY, t1 = (maxY - originY) * invY;
+            tEnter = Math.max(tEnter, Math.min(t0, t1));
+            tExit = Math.min(tExit, Math.max(t0, t1));
+        } else if (originY < minY || originY > maxY) {
+            return maxDistance;
+        }
+        if (dirZ != 0.0f) {
+            float t0 = (minZ - originZ) * invZ, t1 = (maxZ - originZ) * invZ;
+            tEnter = Math.max(tEnter, Math.min(t0, t1));
+            tExit = Math.min(tExit, Math.max(t0, t1));
+        } else if (originZ < minZ || originZ > maxZ) {
+            return maxDistance;
+        }
+        if (!(tEnter <= tExit)) {
+            return maxDistance;
+        }
+        /* Walk the cells along the ray with a 3D digital differential analyzer */
+        int x = cellX(originX + dirX * tEnter), y = cellY(originY + dirY * tEnter), z = cellZ(originZ + dirZ * tEnter);
+        int stepX = dirX > 0.0f ? 1 : -1, stepY = dirY > 0.0f ? 1 : -1, stepZ = dirZ > 0.0f ? 1 : -1;
+        float nextX = dirX == 0.0f ? Float.POSITIVE_INFINITY : (minX + (x + (stepX > 0 ? 1 : 0)) * cellSize - originX) * invX;
+        float nextY = dirY == 0.0f ? Float.POSITIVE_INFINITY : (minY + (y + (stepY > 0 ? 1 : 0)) * cellSize - originY) * invY;
+        float nextZ = dirZ == 0.0f ? Float.POSITIVE_INFINITY : (minZ + (z + (stepZ > 0 ? 1 : 0)) * cellSize - originZ) * invZ;
+        float deltaX = cellSize * Math.abs(invX), deltaY = cellSize * Math.abs(invY), deltaZ = cellSize * Math.abs(invZ);
+        float nearest = maxDistance;
+        while (true) {
+            for (int i = cellStart[cell(x, y, z)], end = cellStart[cell(x, y, z) + 1]; i < end; i++) {
+                float t = enter(cellBoxes[i], originX, originY, originZ, invX, invY, invZ, nearest);
+                if (t < nearest) {
+                    nearest = t;
+                }
+            }
+            float cellExit = Math.min(Math.min(nextX, nextY), nextZ);
+            if (nearest <= cellExit || cellExit > tExit) {
+                return nearest;
+            }
+            if (nextX == cellExit) {
+                x += stepX;
+                nextX += deltaX;
+            } else if (nextY == cellExit) {
+                y += stepY;
+                nextY += deltaY;
+            } else {
+                z += stepZ;
+                nextZ += deltaZ;
+            }
+            if (x < 0 || x >= sizeX || y < 0 || y >= sizeY || z < 0 || z >= sizeZ) {
+                return nearest;
+            }
+        }
+    }
+
+    /**
+     * Return the distance at which the ray enters the given box, or <code>limit</code> if it does not enter it before
+     * that or starts inside of it. A ray which runs exactly within the plane of a face yields NaN and misses.
+     */
+    private float enter(int box, float originX, float originY, float originZ, float invX, float invY, float invZ, float limit) {
+        float[] b = boxes;
+        int o = 6 * box;
+        float tx0 = (b[o] - originX) * invX, tx1 = (b[o + 3] - originX) * invX;
+        float ty0 = (b[o + 1] - originY) * invY, ty1 = (b[o + 4] - originY) * invY;
+        float tz0 = (b[o + 2] - originZ) * invZ, tz1 = (b[o + 5] - originZ) * invZ;
+        float tNear = Math.max(Math.max(Math.min(tx0, tx1), Math.min(ty0, ty1)), Math.min(tz0, tz1));
+        float tFar = Math.min(Math.min(Math.max(tx0, tx1), Math.max(ty0, ty1)), Math.max(tz0, tz1));
+        if (tNear > 0.0f && tNear <= tFar && tNear < limit) {
+            return tNear;
+        }
+        return limit;
+    }
+
+}
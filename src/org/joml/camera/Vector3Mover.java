@@ -41,10 +41,14 @@ import org.joml.Vector3f;
  * function between two given points. It instead uses a simulation based on
  * velocity and acceleration and allowing to alter the {@link #target} to any
  * value at any time.
+ * <p>
+ * The integration is deterministic. It only uses basic IEEE 754 operations on local variables and does not depend
+ * on JOML's <code>joml.fastmath</code> and <code>joml.useMathFma</code> options, so that the same sequence of updates
+ * produces bit-identical results on every JVM. See {@link StateChecksum}.
  * 
  * @author Kai Burjack
  */
-public class Vector3Mover {
+public strictfp class Vector3Mover extends Mover {
 
     public static final float SMALL_VALUE_THRESHOLD = 1E-5f;
 
@@ -84,102 +88,123 @@ public class Vector3Mover {
      */
     public final Vector3f velocity = new Vector3f();
 
-    /* Some helper objects. JOML did not use any, but joml-camera now has to. */
+    /**
+     * Set the target position and {@link #wake() wake} this mover.
+     * 
+     * @param x
+     *            the x coordinate of the target
+     * @param y
+     *            the y coordinate of the target
+     * @param z
+     *            the z coordinate of the target
+     */
+    public void setTarget(float x, float y, float z) {
+        target.set(x, y, z);
+        wake();
+    }
 
-    private final Vector3f currentToTarget = new Vector3f();
-    private final Vector3f currentToTargetNormalized = new Vector3f();
-    private final Vector3f perpendicularVelocityComponent = new Vector3f();
-    private final Vector3f directVelocityComponent = new Vector3f();
-    private final Vector3f directAcceleration = new Vector3f();
-    private final Vector3f perpendicularAcceleration = new Vector3f();
-    private final Vector3f newAcceleration = new Vector3f();
-    private final Vector3f newVelocity = new Vector3f();
-    private final Vector3f way = new Vector3f();
+    public boolean isSettled() {
+        float cx = target.x - current.x, cy = target.y - current.y, cz = target.z - current.z;
+        if (smoothing != null) {
+            return cx == 0.0f && cy == 0.0f && cz == 0.0f
+                && velocity.x == 0.0f && velocity.y == 0.0f && velocity.z == 0.0f;
+        }
+        return cx == 0.0f && cy == 0.0f && cz == 0.0f || (float) Math.sqrt(cx * cx + (cy * cy + cz * cz)) < 1E-5;
+    }
 
     /**
      * Update the simulation based on the elapsed time since the last update.
+     * <p>
+     * A mover which sits exactly on its target returns immediately. When the mover would move past the target, it
+     * moves by the remaining difference to the target and stops.
      * 
      * @param elapsedTimeInSeconds
      *            the elapsed time in seconds since the last update
      */
     public void update(float elapsedTimeInSeconds) {
-        /* Compute the way we need to got */
-        currentToTarget.set(target).sub(current);
-        if (currentToTarget.length() < 1E-5) {
+        if (smoothing != null) {
+            smooth(elapsedTimeInSeconds);
             return;
         }
-        currentToTargetNormalized.set(currentToTarget).normalize();
+        float dt = elapsedTimeInSeconds;
+        Vector3f cur = current, tgt = target, vel = velocity;
+        /* Compute the way we need to go */
+        float cx = tgt.x - cur.x, cy = tgt.y - cur.y, cz = tgt.z - cur.z;
+        if (cx == 0.0f && cy == 0.0f && cz == 0.0f) {
+            return;
+        }
+        float ctt = (float) Math.sqrt(cx * cx + (cy * cy + cz * cz));
+        if (ctt < 1E-5) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.MOVER_UPDATES);
+        }
+        float invCtt = 1.0f / ctt;
+        float nx = cx * invCtt, ny = cy * invCtt, nz = cz * invCtt;
+        float vx = vel.x, vy = vel.y, vz = vel.z;
 
         /*
          * Dot product in order to project the velocity onto the target
          * direction.
          */
-        float dot = currentToTargetNormalized.dot(velocity);
+        float dot = nx * vx + (ny * vy + nz * vz);
 
         /*
-         * Compute the perpendicular velocity component (how much of the current
-         * velocity is directed exactly perpendicular to the target).
-         */
-        perpendicularVelocityComponent.set(currentToTargetNormalized);
-        perpendicularVelocityComponent.mul(dot);
-        perpendicularVelocityComponent.sub(velocity);
-        /*
-         * Now this contains the vector to eliminate the perpendicular
-         * component, i.e. it is directed towards the line of sight between the
-         * target and current.
+         * Compute the vector to eliminate the perpendicular velocity component
+         * (how much of the current velocity is directed exactly perpendicular
+         * to the target), i.e. it is directed towards the line of sight between
+         * the target and current.
          */
+        float px = nx * dot - vx, py = ny * dot - vy, pz = nz * dot - vz;
+        float perpLength = (float) Math.sqrt(px * px + (py * py + pz * pz));
 
         /*
          * Compute the direct velocity component (how much of the current
          * velocity is directed towards the target).
          */
-        directVelocityComponent.set(currentToTargetNormalized);
-        directVelocityComponent.mul(Math.abs(dot));
+        float absDot = Math.abs(dot);
+        float dx = nx * absDot, dy = ny * absDot, dz = nz * absDot;
+        float directLengthSquared = dx * dx + (dy * dy + dz * dz);
 
         /*
-         * In which time can we reach complete zero perpendicular movement?
+         * In which time can we reach complete zero perpendicular movement? This
+         * is how long our whole movement to the target needs to take at least
+         * in order for the perpendicular movement to stop (which we want!).
          */
-        float timeToStopPerpendicular = perpendicularVelocityComponent.length() / maxPerpendicularDeceleration;
-        /*
-         * This is how long our whole movement to the target needs to take at
-         * least in order for the perpendicular movement to stop (which we
-         * want!). The problem now is that the length of the direct way depends
-         * on the perpendicular movement. The more we move in the perpendicular
-         * direction, the longer the direct path becomes.
-         */
-
+        float timeToStopPerpendicular = perpLength / maxPerpendicularDeceleration;
         /*
          * Compute how far we would move along the direct component if we
-         * completely eliminate this velocity component.
-         */
-        float directStopDistance = directVelocityComponent.lengthSquared() / (2.0f * maxDirectDeceleration);
-        /*
-         * Now see how much time it will take us to fully stop the direct
-         * movement.
+         * completely eliminate this velocity component, and how much time it
+         * will take us to fully stop the direct movement.
          */
-        float timeToStopDirect = directVelocityComponent.length() / maxDirectDeceleration;
+        float directStopDistance = directLengthSquared / (2.0f * maxDirectDeceleration);
+        float timeToStopDirect = (float) Math.sqrt(directLengthSquared) / maxDirectDeceleration;
 
+        float ax, ay, az;
         /*
          * Check if we need to decelerate the direct component, because we would
          * move too far if we didn't.
          */
         if (dot >= SMALL_VALUE_THRESHOLD
-                && (directStopDistance >= currentToTarget.length() || timeToStopPerpendicular > timeToStopDirect)) {
+                && (directStopDistance >= ctt || timeToStopPerpendicular > timeToStopDirect)) {
             /* We need to decelerate the direct component */
-            directAcceleration.set(currentToTargetNormalized).mul(maxDirectDeceleration).negate();
+            ax = -(nx * maxDirectDeceleration);
+            ay = -(ny * maxDirectDeceleration);
+            az = -(nz * maxDirectDeceleration);
         } else {
             /*
              * We can still accelerate directly towards the target. Compute the
-             * necessary acceleration to reach the target in the elapsed time.
+             * necessary acceleration to reach the target in the elapsed time,
+             * limited to the maximum allowed acceleration.
              */
-            float neededDirectAcc = currentToTarget.length() / elapsedTimeInSeconds;
-            float directAcc = neededDirectAcc;
-            /* Check if that would be too much acceleration */
-            if (neededDirectAcc > maxDirectAcceleration) {
-                /* Limit to maximum allowed acceleration */
+            float directAcc = ctt / dt;
+            if (directAcc > maxDirectAcceleration) {
                 directAcc = maxDirectAcceleration;
             }
-            directAcceleration.set(currentToTargetNormalized).mul(directAcc);
+            ax = nx * directAcc;
+            ay = ny * directAcc;
+            az = nz * directAcc;
         }
 
         /*
@@ -187,34 +212,88 @@ public class Vector3Mover {
          * be too much for the time, we compute the optimal deceleration based
          * on the elapsed time.
          */
-        float neededPerpendicularAcc = perpendicularVelocityComponent.length() / elapsedTimeInSeconds;
-        float perpendicularDeceleration = neededPerpendicularAcc;
-        /* Check if that would be too much acceleration */
-        if (neededPerpendicularAcc > maxPerpendicularDeceleration) {
-            /* Limit to maximum allowed acceleration */
-            perpendicularDeceleration = maxPerpendicularDeceleration;
-        }
-        /* If the perpendicular velocity would be too small */
-        if (perpendicularVelocityComponent.length() > SMALL_VALUE_THRESHOLD) {
-            perpendicularAcceleration.set(perpendicularVelocityComponent).normalize().mul(perpendicularDeceleration);
-        } else {
-            perpendicularAcceleration.set(0.0f, 0.0f, 0.0f);
+        if (perpLength > SMALL_VALUE_THRESHOLD) {
+            float perpDec = perpLength / dt;
+            if (perpDec > maxPerpendicularDeceleration) {
+                perpDec = maxPerpendicularDeceleration;
+            }
+            float invPerpLength = 1.0f / perpLength;
+            ax += px * invPerpLength * perpDec;
+            ay += py * invPerpLength * perpDec;
+            az += pz * invPerpLength * perpDec;
         }
+        acceleration.set(ax, ay, az);
 
-        /* Compute new acceleration */
-        newAcceleration.set(directAcceleration).add(perpendicularAcceleration);
         /* Compute new velocity */
-        newVelocity.set(newAcceleration).mul(elapsedTimeInSeconds).add(velocity);
-        velocity.set(newVelocity);
-
-        way.set(velocity).mul(elapsedTimeInSeconds);
-        if (way.length() > currentToTarget.length()) {
-            velocity.zero();
-            way.set(currentToTarget);
+        vx = ax * dt + vx;
+        vy = ay * dt + vy;
+        vz = az * dt + vz;
+        float wx = vx * dt, wy = vy * dt, wz = vz * dt;
+        if ((float) Math.sqrt(wx * wx + (wy * wy + wz * wz)) > ctt) {
+            /* We would move too far */
+            if (metrics != null) {
+                metrics.increment(CameraMetrics.MOVER_TARGET_CLAMPS);
+            }
+            vx = vy = vz = 0.0f;
+            wx = cx;
+            wy = cy;
+            wz = cz;
         }
+        vel.set(vx, vy, vz);
 
         /* Compute new current position based on updated velocity */
-        current.add(way);
+        cur.set(cur.x + wx, cur.y + wy, cur.z + wz);
+    }
+
+    private void smooth(float elapsedTimeInSeconds) {
+        if (isSettled()) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.MOVER_UPDATES);
+        }
+        Vector3f cur = current, tgt = target, vel = velocity;
+        double[] state = smoothingState(3);
+        /*
+         * Keep the exact state of the last step unless the fields were changed since, because far from the origin the
+         * rounded float offsets could never get below the settle threshold
+         */
+        if (cur.x != (float) (tgt.x + state[0]) || cur.y != (float) (tgt.y + state[1])
+                || cur.z != (float) (tgt.z + state[2]) || vel.x != (float) state[3] || vel.y != (float) state[4]
+                || vel.z != (float) state[5]) {
+            state[0] = (double) cur.x - tgt.x;
+            state[1] = (double) cur.y - tgt.y;
+            state[2] = (double) cur.z - tgt.z;
+            state[3] = vel.x;
+            state[4] = vel.y;
+            state[5] = vel.z;
+        }
+        smoothing.step(state, 3, elapsedTimeInSeconds);
+        if (elapsedTimeInSeconds > 0.0f) {
+            acceleration.set((float) ((state[3] - vel.x) / elapsedTimeInSeconds),
+                             (float) ((state[4] - vel.y) / elapsedTimeInSeconds),
+                             (float) ((state[5] - vel.z) / elapsedTimeInSeconds));
+        }
+        vel.set((float) state[3], (float) state[4], (float) state[5]);
+        cur.set((float) (tgt.x + state[0]), (float) (tgt.y + state[1]), (float) (tgt.z + state[2]));
+    }
+
+    /**
+     * Mix the state of this mover into the given hash.
+     * 
+     * @param hash
+     *            the hash so far
+     * @return the new hash
+     * @see StateChecksum
+     */
+    public long checksum(long hash) {
+        hash = StateChecksum.mix(hash, current);
+        hash = StateChecksum.mix(hash, target);
+        hash = StateChecksum.mix(hash, velocity);
+        hash = StateChecksum.mix(hash, acceleration);
+        hash = StateChecksum.mix(hash, maxDirectAcceleration);
+        hash = StateChecksum.mix(hash, maxDirectDeceleration);
+        return StateChecksum.mix(hash, maxPerpendicularDeceleration);
     }
 
 }
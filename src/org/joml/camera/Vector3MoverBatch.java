@@ -0,0 +1,268 @@
+package org.joml.camera;
+
+import org.joml.Vector3f;
+
+/**
+ * Integrates many {@link Vector3Mover movers} at once, storing their state in flat <code>float[]</code> arrays instead of
+ * one object graph per mover.
+ * <p>
+ * The vector-valued arrays {@link #current}, {@link #target}, {@link #velocity} and {@link #acceleration} hold three
+ * consecutive <code>x, y, z</code> values per mover, so that mover <code>i</code> starts at index <code>3 * i</code>.
+ * The limits {@link #maxDirectAcceleration}, {@link #maxDirectDeceleration} and {@link #maxPerpendicularDeceleration}
+ * hold one value per mover.
+ * <p>
+ * {@link #update(float)} performs the same floating-point operations in the same order as
+ * {@link Vector3Mover#update(float)}, so the results are identical to updating each mover separately. The only
+ * exception is when JOML is configured to use fused multiply-add (<code>-Djoml.useMathFma</code>), in which case the
+ * results differ by at most a few ulps per step. Unlike {@link Vector3Mover}, the batch also stores the applied
+ * acceleration in {@link #acceleration}.
+ */
+public class Vector3MoverBatch {
+
+    /**
+     * The current positions. These will change after an invocation to {@link #update(float)}.
+     */
+    public final float[] current;
+
+    /**
+     * The desired target positions. Set these to any value at any time.
+     */
+    public final float[] target;
+
+    /**
+     * The current velocities. MUST NOT be modified from outside.
+     */
+    public final float[] velocity;
+
+    /**
+     * The acceleration applied in the last update. MUST NOT be modified from outside.
+     */
+    public final float[] acceleration;
+
+    /**
+     * The maximum acceleration directly towards the target of each mover.
+     */
+    public final float[] maxDirectAcceleration;
+
+    /**
+     * The maximum deceleration directly towards the target of each mover.
+     */
+    public final float[] maxDirectDeceleration;
+
+    /**
+     * The maximum deceleration (in positive values) towards the velocity component perpendicular to the target
+     * direction of each mover.
+     */
+    public final float[] maxPerpendicularDeceleration;
+
+    private int size;
+
+    /**
+     * Create a new, empty batch which can hold up to <code>capacity</code> movers.
+     *
+     * @param capacity
+     *            the maximum number of movers
+     */
+    public Vector3MoverBatch(int capacity) {
+        current = new float[3 * capacity];
+        target = new float[3 * capacity];
+        velocity = new float[3 * capacity];
+        acceleration = new float[3 * capacity];
+        maxDirectAcceleration = new float[capacity];
+        maxDirectDeceleration = new float[capacity];
+        maxPerpendicularDeceleration = new float[capacity];
+    }
+
+    /**
+     * @return the number of movers in this batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the maximum number of movers in this batch
+     */
+    public int capacity() {
+        return maxDirectAcceleration.length;
+    }
+
+    /**
+     * Add a new mover at position zero with the same default limits as a new {@link Vector3Mover}.
+     *
+     * @return the index of the new mover
+     */
+    public int add() {
+        if (size == capacity()) {
+            throw new IllegalStateException("Batch is full");
+        }
+        int i = size++;
+        maxDirectAcceleration[i] = 20.0f;
+        maxDirectDeceleration[i] = 100.0f;
+        maxPerpendicularDeceleration[i] = 30.0f;
+        return i;
+    }
+
+    /**
+     * Add a new mover whose state and limits are copied from the given {@link Vector3Mover}.
+     *
+     * @param mover
+     *            the mover to copy
+     * @return the index of the new mover
+     */
+    public int add(Vector3Mover mover) {
+        int i = add();
+        set(i, current, mover.current);
+        set(i, target, mover.target);
+        set(i, velocity, mover.velocity);
+        set(i, acceleration, mover.acceleration);
+        maxDirectAcceleration[i] = mover.maxDirectAcceleration;
+        maxDirectDeceleration[i] = mover.maxDirectDeceleration;
+        maxPerpendicularDeceleration[i] = mover.maxPerpendicularDeceleration;
+        return i;
+    }
+
+    private static void set(int i, float[] arr, Vector3f v) {
+        arr[3 * i + 0] = v.x;
+        arr[3 * i + 1] = v.y;
+        arr[3 * i + 2] = v.z;
+    }
+
+    /**
+     * Set the target position of the mover with the given index.
+     *
+     * @param i
+     *            the index of the mover
+     * @param x
+     *            the x coordinate of the target
+     * @param y
+     *            the y coordinate of the target
+     * @param z
+     *            the z coordinate of the target
+     */
+    public void target(int i, float x, float y, float z) {
+        target[3 * i + 0] = x;
+        target[3 * i + 1] = y;
+        target[3 * i + 2] = z;
+    }
+
+    /**
+     * Store the current position of the mover with the given index into <code>dest</code>.
+     *
+     * @param i
+     *            the index of the mover
+     * @param dest
+     *            will hold the result
+     * @return dest
+     */
+    public Vector3f current(int i, Vector3f dest) {
+        return dest.set(current[3 * i + 0], current[3 * i + 1], current[3 * i + 2]);
+    }
+
+    /**
+     * Update all movers based on the elapsed time since the last update.
+     *
+     * @param elapsedTimeInSeconds
+     *            the elapsed time in seconds since the last update
+     */
+    public void update(float elapsedTimeInSeconds) {
+        update(elapsedTimeInSeconds, 0, size);
+    }
+
+    /**
+     * Update the movers with indices in <code>[from, to)</code> based on the elapsed time since the last update.
+     * <p>
+     * Disjoint ranges may be updated concurrently from different threads.
+     *
+     * @param elapsedTimeInSeconds
+     *            the elapsed time in seconds since the last update
+     * @param from
+     *            the index of the first mover to update
+     * @param to
+     *            the index after the last mover to update
+     */
+    public void update(float elapsedTimeInSeconds, int from, int to) {
+        float dt = elapsedTimeInSeconds;
+        float[] cur = current, tgt = target, vel = velocity, acc = acceleration;
+        for (int i = from; i < to; i++) {
+            int j = 3 * i;
+            /* Compute the way we need to go */
+            float cx = tgt[j] - cur[j], cy = tgt[j + 1] - cur[j + 1], cz = tgt[j + 2] - cur[j + 2];
+            if (cx == 0.0f && cy == 0.0f && cz == 0.0f) {
+                continue;
+            }
+            float ctt = (float) Math.sqrt(cx * cx + (cy * cy + cz * cz));
+            if (ctt < 1E-5) {
+                continue;
+            }
+            float invCtt = 1.0f / ctt;
+            float nx = cx * invCtt, ny = cy * invCtt, nz = cz * invCtt;
+            float vx = vel[j], vy = vel[j + 1], vz = vel[j + 2];
+            /* Project the velocity onto the target direction */
+            float dot = nx * vx + (ny * vy + nz * vz);
+            /* Vector to eliminate the perpendicular velocity component */
+            float px = nx * dot - vx, py = ny * dot - vy, pz = nz * dot - vz;
+            float perpLength = (float) Math.sqrt(px * px + (py * py + pz * pz));
+            /* Direct velocity component */
+            float absDot = Math.abs(dot);
+            float dx = nx * absDot, dy = ny * absDot, dz = nz * absDot;
+            float directLengthSquared = dx * dx + (dy * dy + dz * dz);
+            float maxDirDec = maxDirectDeceleration[i];
+            float maxPerpDec = maxPerpendicularDeceleration[i];
+            float timeToStopPerpendicular = perpLength / maxPerpDec;
+            float directStopDistance = directLengthSquared / (2.0f * maxDirDec);
+            float timeToStopDirect = (float) Math.sqrt(directLengthSquared) / maxDirDec;
+            float ax, ay, az;
+            if (dot >= Vector3Mover.SMALL_VALUE_THRESHOLD
+                    && (directStopDistance >= ctt || timeToStopPerpendicular > timeToStopDirect)) {
+                /* Decelerate the direct component */
+                ax = -(nx * maxDirDec);
+                ay = -(ny * maxDirDec);
+                az = -(nz * maxDirDec);
+            } else {
+                /* Accelerate towards the target, at most with the maximum acceleration */
+                float directAcc = ctt / dt;
+                if (directAcc > maxDirectAcceleration[i]) {
+                    directAcc = maxDirectAcceleration[i];
+                }
+                ax = nx * directAcc;
+                ay = ny * directAcc;
+                az = nz * directAcc;
+            }
+            /* Perpendicular deceleration, at most with the maximum deceleration */
+            if (perpLength > Vector3Mover.SMALL_VALUE_THRESHOLD) {
+                float perpDec = perpLength / dt;
+                if (perpDec > maxPerpDec) {
+                    perpDec = maxPerpDec;
+                }
+                float invPerpLength = 1.0f / perpLength;
+                ax += px * invPerpLength * perpDec;
+                ay += py * invPerpLength * perpDec;
+                az += pz * invPerpLength * perpDec;
+            }
+            acc[j] = ax;
+            acc[j + 1] = ay;
+            acc[j + 2] = az;
+            /* Compute new velocity */
+            vx = ax * dt + vx;
+            vy = ay * dt + vy;
+            vz = az * dt + vz;
+            float wx = vx * dt, wy = vy * dt, wz = vz * dt;
+            if ((float) Math.sqrt(wx * wx + (wy * wy + wz * wz)) > ctt) {
+                /* We would move too far */
+                vx = vy = vz = 0.0f;
+                wx = cx;
+                wy = cy;
+                wz = cz;
+            }
+            vel[j] = vx;
+            vel[j + 1] = vy;
+            vel[j + 2] = vz;
+            /* Compute new current position based on updated velocity */
+            cur[j] += wx;
+            cur[j + 1] += wy;
+            cur[j + 2] += wz;
+        }
+    }
+
+}
@@ -0,0 +1,246 @@
+package org.joml.camera;
+
+import org.joml.Vector3d;
+
+/**
+ * Double-precision variant of {@link Vector3Mover}, which provides smooth convergence of a <code>current</code>
+ * position to a <code>target</code> position in 3D space, based on velocity and acceleration computations.
+ * <p>
+ * It uses the same simulation as {@link Vector3Mover}, but stores all positions, velocities and accelerations as
+ * {@link Vector3d}. This allows to move positions far away from the origin, where <code>float</code> can no longer
+ * resolve small movements and the mover would stop early at {@link Vector3Mover#SMALL_VALUE_THRESHOLD}.
+ * <p>
+ * Like {@link Vector3Mover}, the integration only uses basic IEEE 754 operations on local variables, so that the same
+ * sequence of updates produces bit-identical results on every JVM, and it can be driven by a {@link MoverScheduler}
+ * and a {@link #smoothing} strategy.
+ */
+public strictfp class Vector3dMover extends Mover {
+
+    /**
+     * Distances and velocities below this value are treated as zero.
+     */
+    public static final double SMALL_VALUE_THRESHOLD = 1E-9;
+
+    /**
+     * The maximum acceleration directly towards the target.
+     */
+    public double maxDirectAcceleration = 20.0;
+
+    /**
+     * The maximum deceleration directly towards the target.
+     */
+    public double maxDirectDeceleration = 100.0;
+
+    /**
+     * The maximum deceleration (in positive values) towards the velocity
+     * component perpendicular to the target direction.
+     */
+    public double maxPerpendicularDeceleration = 30.0;
+
+    /**
+     * The current position. This will change after an invocation to
+     * {@link #update(double)}.
+     */
+    public final Vector3d current = new Vector3d();
+
+    /**
+     * The desired target position. Set this to any value at any time.
+     */
+    public final Vector3d target = new Vector3d();
+
+    /**
+     * The current acceleration. MUST NOT be modified from outside.
+     */
+    public final Vector3d acceleration = new Vector3d();
+    /**
+     * The current velocity. MUST NOT be modified from outside.
+     */
+    public final Vector3d velocity = new Vector3d();
+
+    /**
+     * Set the target position and {@link #wake() wake} this mover.
+     *
+     * @param x
+     *            the x coordinate of the target
+     * @param y
+     *            the y coordinate of the target
+     * @param z
+     *            the z coordinate of the target
+     */
+    public void setTarget(double x, double y, double z) {
+        target.set(x, y, z);
+        wake();
+    }
+
+    public boolean isSettled() {
+        double cx = target.x - current.x, cy = target.y - current.y, cz = target.z - current.z;
+        if (smoothing != null) {
+            return cx == 0.0 && cy == 0.0 && cz == 0.0
+                && velocity.x == 0.0 && velocity.y == 0.0 && velocity.z == 0.0;
+        }
+        return cx == 0.0 && cy == 0.0 && cz == 0.0 || Math.sqrt(cx * cx + (cy * cy + cz * cz)) < SMALL_VALUE_THRESHOLD;
+    }
+
+    public void update(float elapsedTimeInSeconds) {
+        update((double) elapsedTimeInSeconds);
+    }
+
+    /**
+     * Update the simulation based on the elapsed time since the last update.
+     * <p>
+     * A mover which sits exactly on its target returns immediately. When the mover would move past the target, it
+     * moves by the remaining difference to the target and stops.
+     *
+     * @param elapsedTimeInSeconds
+     *            the elapsed time in seconds since the last update
+     */
+    public void update(double elapsedTimeInSeconds) {
+        if (smoothing != null) {
+            smooth(elapsedTimeInSeconds);
+            return;
+        }
+        double dt = elapsedTimeInSeconds;
+        Vector3d cur = current, tgt = target, vel = velocity;
+        /* Compute the way we need to go */
+        double cx = tgt.x - cur.x, cy = tgt.y - cur.y, cz = tgt.z - cur.z;
+        if (cx == 0.0 && cy == 0.0 && cz == 0.0) {
+            return;
+        }
+        double ctt = Math.sqrt(cx * cx + (cy * cy + cz * cz));
+        if (ctt < SMALL_VALUE_THRESHOLD) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.MOVER_UPDATES);
+        }
+        double invCtt = 1.0 / ctt;
+        double nx = cx * invCtt, ny = cy * invCtt, nz = cz * invCtt;
+        double vx = vel.x, vy = vel.y, vz = vel.z;
+
+        /*
+         * Dot product in order to project the velocity onto the target
+         * direction.
+         */
+        double dot = nx * vx + (ny * vy + nz * vz);
+
+        /*
+         * Compute the vector to eliminate the perpendicular velocity component
+         * (how much of the current velocity is directed exactly perpendicular
+         * to the target), i.e. it is directed towards the line of sight between
+         * the target and current.
+         */
+        double px = nx * dot - vx, py = ny * dot - vy, pz = nz * dot - vz;
+        double perpLength = Math.sqrt(px * px + (py * py + pz * pz));
+
+        /*
+         * Compute the direct velocity component (how much of the current
+         * velocity is directed towards the target).
+         */
+        double absDot = Math.abs(dot);
+        double dx = nx * absDot, dy = ny * absDot, dz = nz * absDot;
+        double directLengthSquared = dx * dx + (dy * dy + dz * dz);
+
+        /*
+         * In which time can we reach complete zero perpendicular movement? This
+         * is how long our whole movement to the target needs to take at least
+         * in order for the perpendicular movement to stop (which we want!).
+         */
+        double timeToStopPerpendicular = perpLength / maxPerpendicularDeceleration;
+        /*
+         * Compute how far we would move along the direct component if we
+         * completely eliminate this velocity component, and how much time it
+         * will take us to fully stop the direct movement.
+         */
+        double directStopDistance = directLengthSquared / (2.0 * maxDirectDeceleration);
+        double timeToStopDirect = Math.sqrt(directLengthSquared) / maxDirectDeceleration;
+
+        double ax, ay, az;
+        /*
+         * Check if we need to decelerate the direct component, because we would
+         * move too far if we didn't.
+         */
+        if (dot >= SMALL_VALUE_THRESHOLD
+                && (directStopDistance >= ctt || timeToStopPerpendicular > timeToStopDirect)) {
+            /* We need to decelerate the direct component */
+            ax = -(nx * maxDirectDeceleration);
+            ay = -(ny * maxDirectDeceleration);
+            az = -(nz * maxDirectDeceleration);
+        } else {
+            /*
+             * We can still accelerate directly towards the target. Compute the
+             * necessary acceleration to reach the target in the elapsed time,
+             * limited to the maximum allowed acceleration.
+             */
+            double directAcc = ctt / dt;
+            if (directAcc > maxDirectAcceleration) {
+                directAcc = maxDirectAcceleration;
+            }
+            ax = nx * directAcc;
+            ay = ny * directAcc;
+            az = nz * directAcc;
+        }
+
+        /*
+         * Compute the perpendicular deceleration. If maximum deceleration would
+         * be too much for the time, we compute the optimal deceleration based
+         * on the elapsed time.
+         */
+        if (perpLength > SMALL_VALUE_THRESHOLD) {
+            double perpDec = perpLength / dt;
+            if (perpDec > maxPerpendicularDeceleration) {
+                perpDec = maxPerpendicularDeceleration;
+            }
+            double invPerpLength = 1.0 / perpLength;
+            ax += px * invPerpLength * perpDec;
+            ay += py * invPerpLength * perpDec;
+            az += pz * invPerpLength * perpDec;
+        }
+        acceleration.set(ax, ay, az);
+
+        /* Compute new velocity */
+        vx = ax * dt + vx;
+        vy = ay * dt + vy;
+        vz = az * dt + vz;
+        double wx = vx * dt, wy = vy * dt, wz = vz * dt;
+        if (Math.sqrt(wx * wx + (wy * wy + wz * wz)) > ctt) {
+            /* We would move too far */
+            if (metrics != null) {
+                metrics.increment(CameraMetrics.MOVER_TARGET_CLAMPS);
+            }
+            vx = vy = vz = 0.0;
+            wx = cx;
+            wy = cy;
+            wz = cz;
+        }
+        vel.set(vx, vy, vz);
+
+        /* Compute new current position based on updated velocity */
+        cur.set(cur.x + wx, cur.y + wy, cur.z + wz);
+    }
+
+    private void smooth(double elapsedTimeInSeconds) {
+        if (isSettled()) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.increment(CameraMetrics.MOVER_UPDATES);
+        }
+        Vector3d cur = current, tgt = target, vel = velocity;
+        double[] state = smoothingState(3);
+        state[0] = cur.x - tgt.x;
+        state[1] = cur.y - tgt.y;
+        state[2] = cur.z - tgt.z;
+        state[3] = vel.x;
+        state[4] = vel.y;
+        state[5] = vel.z;
+        smoothing.step(state, 3, elapsedTimeInSeconds);
+        if (elapsedTimeInSeconds > 0.0) {
+            acceleration.set((state[3] - vel.x) / elapsedTimeInSeconds,
+                             (state[4] - vel.y) / elapsedTimeInSeconds,
+                             (state[5] - vel.z) / elapsedTimeInSeconds);
+        }
+        vel.set(state[3], state[4], state[5]);
+        cur.set(tgt.x + state[0], tgt.y + state[1], tgt.z + state[2]);
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.joml.camera;
+
+/**
+ * A ring buffer of the most recent velocity samples of a number of components, which yields their average weighted
+ * by the duration of each sample.
+ * <p>
+ * The cameras use this to extrapolate their view transformation for latency compensation with a velocity that does
+ * not jitter with the frame times. A longer history gives a smoother but more delayed velocity.
+ */
+public class VelocityHistory {
+
+    private final int dims;
+    private final float[] velocities;
+    private final float[] durations;
+    private int next;
+    private int count;
+
+    /**
+     * @param capacity
+     *            the number of samples to keep
+     * @param dims
+     *            the number of components of each sample
+     */
+    public VelocityHistory(int capacity, int dims) {
+        if (capacity < 1 || dims < 1) {
+            throw new IllegalArgumentException("capacity and dims must be positive");
+        }
+        this.dims = dims;
+        this.velocities = new float[capacity * dims];
+        this.durations = new float[capacity];
+    }
+
+    /**
+     * @return the number of samples kept at most
+     */
+    public int capacity() {
+        return durations.length;
+    }
+
+    /**
+     * @return the number of samples currently held
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Add a sample, replacing the oldest one if the history is full. Samples with a duration of zero are ignored.
+     *
+     * @param duration
+     *            the time in seconds the sample was measured over
+     * @param velocity
+     *            holds the components of the sample, starting at index 0
+     */
+    public void add(float duration, float[] velocity) {
+        if (!(duration > 0.0f)) {
+            return;
+        }
+        durations[next] = duration;
+        System.arraycopy(velocity, 0, velocities, next * dims, dims);
+        next = (next + 1) % durations.length;
+        if (count < durations.length) {
+            count++;
+        }
+    }
+
+    /**
+     * Store the duration-weighted average of all samples into <code>dest</code>.
+     *
+     * @param dest
+     *            will hold the average components, starting at index 0
+     * @return <code>false</code> if the history is empty, in which case <code>dest</code> is not modified
+     */
+    public boolean average(float[] dest) {
+        if (count == 0) {
+            return false;
+        }
+        float totalDuration = 0.0f;
+        for (int d = 0; d < dims; d++) {
+            dest[d] = 0.0f;
+        }
+        for (int i = 0; i < count; i++) {
+            float duration = durations[i];
+            totalDuration += duration;
+            for (int d = 0, o = i * dims; d < dims; d++) {
+                dest[d] += velocities[o + d] * duration;
+            }
+        }
+        float invDuration = 1.0f / totalDuration;
+        for (int d = 0; d < dims; d++) {
+            dest[d] *= invDuration;
+        }
+        return true;
+    }
+
+    /**
+     * Remove all samples.
+     */
+    public void clear() {
+        next = 0;
+        count = 0;
+    }
+
+}
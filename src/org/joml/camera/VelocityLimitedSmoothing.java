@@ -0,0 +1,73 @@
+package org.joml.camera;
+
+/**
+ * Moves towards the target with exponential decay like {@link ExponentialSmoothing}, but never faster than
+ * {@link #maxSpeed}.
+ * <p>
+ * Far away from the target, the mover travels along the straight line to the target at the maximum speed. Once the
+ * decay would be slower than that, it continues with exponential decay. The speed limit applies to the length of the
+ * velocity vector of all components together.
+ */
+public strictfp class VelocityLimitedSmoothing extends Smoothing {
+
+    /**
+     * The maximum speed in units per second.
+     */
+    public double maxSpeed;
+
+    /**
+     * The time in seconds after which half of the remaining distance is covered when not limited by
+     * {@link #maxSpeed}.
+     */
+    public double halfLife;
+
+    /**
+     * @param maxSpeed
+     *            the maximum speed in units per second
+     * @param halfLife
+     *            the time in seconds after which half of the remaining distance is covered when not limited by
+     *            <code>maxSpeed</code>
+     */
+    public VelocityLimitedSmoothing(double maxSpeed, double halfLife) {
+        if (maxSpeed <= 0.0 || halfLife <= 0.0) {
+            throw new IllegalArgumentException("maxSpeed and halfLife must be positive");
+        }
+        this.maxSpeed = maxSpeed;
+        this.halfLife = halfLife;
+    }
+
+    protected void integrate(double[] state, int dims, double dt) {
+        double lambda = LN2 / halfLife;
+        double distanceSquared = 0.0;
+        for (int i = 0; i < dims; i++) {
+            distanceSquared += state[i] * state[i];
+        }
+        double distance = StrictMath.sqrt(distanceSquared);
+        if (distance == 0.0) {
+            for (int i = 0; i < dims; i++) {
+                state[dims + i] = 0.0;
+            }
+            return;
+        }
+        /* Beyond this distance, the decay would exceed the maximum speed */
+        double limitedDistance = maxSpeed / lambda;
+        double newDistance;
+        double timeToLimit = (distance - limitedDistance) / maxSpeed;
+        if (dt <= timeToLimit) {
+            newDistance = distance - maxSpeed * dt;
+        } else if (timeToLimit > 0.0) {
+            newDistance = limitedDistance * StrictMath.exp(-lambda * (dt - timeToLimit));
+        } else {
+            newDistance = distance * StrictMath.exp(-lambda * dt);
+        }
+        double scale = newDistance / distance;
+        double speed = Math.min(maxSpeed, lambda * newDistance);
+        double velocityScale = -speed / distance;
+        for (int i = 0; i < dims; i++) {
+            double x = state[i];
+            state[i] = x * scale;
+            state[dims + i] = x * velocityScale;
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package org.joml.camera;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+import org.joml.Matrix4f;
+
+import junit.framework.TestCase;
+
+/**
+ * Compares a {@link CameraGroup} running its chunks in parallel on a {@link ForkJoinPool} with one that processes all
+ * cameras on the calling thread.
+ */
+public class CameraGroupTest extends TestCase {
+
+    private static final int COUNT = 1000;
+    private static final int STEPS = 200;
+    private static final float DT = 1.0f / 60.0f;
+
+    private ForkJoinPool pool;
+
+    protected void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    protected void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Fill the given group with the same mix of free and arcball cameras for the same seed.
+     */
+    private static CameraGroup fill(CameraGroup group, long seed) {
+        Random rnd = new Random(seed);
+        for (int i = 0; i < COUNT; i++) {
+            if (i % 3 == 0) {
+                ArcBallCamera a = new ArcBallCamera();
+                a.setAlpha(rnd.nextDouble() * Math.PI);
+                a.setBeta(rnd.nextDouble() - 0.5);
+                a.zoom(5.0 + rnd.nextDouble() * 10.0);
+                a.center(rnd.nextFloat(), rnd.nextFloat(), rnd.nextFloat());
+                group.add(a);
+            } else {
+                FreeCamera f = new FreeCamera();
+                f.linearVel.set(rnd.nextFloat(), rnd.nextFloat(), rnd.nextFloat());
+                f.angularVel.set(rnd.nextFloat() * 0.1f, rnd.nextFloat() * 0.1f, rnd.nextFloat() * 0.1f);
+                group.add(f);
+            }
+        }
+        return group;
+    }
+
+    private static CameraGroup sequential() {
+        CameraGroup group = fill(new CameraGroup(new ForkJoinPool(1), COUNT), 5L);
+        group.setChunkSize(COUNT);
+        return group;
+    }
+
+    private CameraGroup parallel() {
+        CameraGroup group = fill(new CameraGroup(pool, COUNT), 5L);
+        group.setChunkSize(37);
+        return group;
+    }
+
+    public void testParallelMatchesSequential() {
+        CameraGroup expected = sequential(), actual = parallel();
+        for (int step = 0; step < STEPS; step++) {
+            expected.update(DT);
+            actual.update(DT);
+            assertMatrices(step, expected.getMatrices(), actual.getMatrices());
+        }
+        actual.remove(500);
+        expected.remove(500);
+        expected.updateViewMatrices();
+        actual.updateViewMatrices();
+        assertMatrices(STEPS, expected.getMatrices(), actual.getMatrices());
+    }
+
+    public void testUpdateFromWithinPool() throws Exception {
+        final CameraGroup expected = sequential(), actual = parallel();
+        /* More tasks than workers, which all update the group while the others wait for their turn */
+        ForkJoinTask[] tasks = new ForkJoinTask[8];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = pool.submit(new Runnable() {
+                public void run() {
+                    synchronized (actual) {
+                        actual.update(DT);
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i].get(30, TimeUnit.SECONDS);
+            expected.update(DT);
+        }
+        assertMatrices(tasks.length, expected.getMatrices(), actual.getMatrices());
+    }
+
+    /**
+     * A camera which counts how often its view matrix was written and fails if asked to.
+     */
+    private static class CountingCamera extends FreeCamera {
+        int count;
+        boolean fail;
+
+        public Matrix4f viewMatrix(Matrix4f mat) {
+            if (fail) {
+                throw new IllegalStateException("failing camera");
+            }
+            count++;
+            return super.viewMatrix(mat);
+        }
+    }
+
+    public void testFailingChunkJoinsAllChunks() {
+        CameraGroup group = new CameraGroup(pool, COUNT);
+        group.setChunkSize(16);
+        CountingCamera[] cameras = new CountingCamera[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            cameras[i] = new CountingCamera();
+            group.add(cameras[i]);
+        }
+        int[] failing = { 0, 500, COUNT - 1 };
+        for (int f = 0; f < failing.length; f++) {
+            cameras[failing[f]].fail = true;
+            try {
+                group.update(DT);
+                fail("The exception of camera " + failing[f] + " was not rethrown");
+            } catch (IllegalStateException e) {
+                assertEquals("failing camera", rootCause(e).getMessage());
+            }
+            /* Every chunk completed before update() returned, so no camera is processed later */
+            int[] counts = new int[COUNT];
+            for (int i = 0; i < COUNT; i++) {
+                counts[i] = cameras[i].count;
+            }
+            pool.awaitQuiescence(1, TimeUnit.SECONDS);
+            for (int i = 0; i < COUNT; i++) {
+                assertEquals("camera " + i, counts[i], cameras[i].count);
+            }
+            cameras[failing[f]].fail = false;
+        }
+        /* The group stays usable */
+        group.update(DT);
+    }
+
+    private static Throwable rootCause(Throwable t) {
+        while (t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    private static void assertMatrices(int step, FloatBuffer expected, FloatBuffer actual) {
+        assertEquals(expected.remaining(), actual.remaining());
+        for (int i = expected.position(); i < expected.limit(); i++) {
+            if (Float.floatToIntBits(expected.get(i)) != Float.floatToIntBits(actual.get(i))) {
+                fail("Matrix of camera " + i / 16 + " differs after step " + step + " at element " + i % 16
+                        + ": expected " + expected.get(i) + " but was " + actual.get(i));
+            }
+        }
+    }
+
+}
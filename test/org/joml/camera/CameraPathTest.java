@@ -0,0 +1,45 @@
+package org.joml.camera;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests how {@link CameraPath#apply(float, ArcBallCamera)} decomposes the orientation into the arcball angles.
+ */
+public class CameraPathTest extends TestCase {
+
+    private static final double EPSILON = 1E-5;
+
+    public void testApplyArcBallCameraTurnsAround() {
+        /* Without orientations the camera looks along the path, which heads along +z */
+        CameraPath path = new CameraPath().moveTo(0, 0, 0).catmullRomTo(0, 0, 10).build();
+        ArcBallCamera camera = new ArcBallCamera();
+        path.apply(path.length() * 0.5f, camera);
+        assertEquals(Math.PI, camera.getAlpha(), EPSILON);
+        assertEquals(0.0, camera.getBeta(), EPSILON);
+    }
+
+    public void testApplyArcBallCameraYawBeyondQuarterTurn() {
+        double[] yaws = { 0.3, 1.8, 2.5, -2.0, -1.2, 3.0 };
+        double[] pitches = { 0.0, 0.4, -0.7, 1.2 };
+        for (int i = 0; i < yaws.length; i++) {
+            for (int j = 0; j < pitches.length; j++) {
+                double yaw = yaws[i], pitch = pitches[j];
+                Quaternionf q = new Quaternionf().rotationX((float) pitch).rotateY((float) yaw);
+                CameraPath path = new CameraPath().moveTo(0, 0, 0).orient(q).catmullRomTo(5, 0, 0).orient(q).build();
+                ArcBallCamera camera = new ArcBallCamera();
+                path.apply(path.length() * 0.5f, camera);
+                double expectedAlpha = yaw < 0.0 ? yaw + 2.0 * Math.PI : yaw;
+                assertEquals("alpha for yaw " + yaw + ", pitch " + pitch, expectedAlpha, camera.getAlpha(), EPSILON);
+                assertEquals("beta for yaw " + yaw + ", pitch " + pitch, pitch, camera.getBeta(), EPSILON);
+                /* The arcball rotation reproduces the orientation of the path */
+                Matrix4f expected = new Matrix4f().rotation(q);
+                Matrix4f actual = new Matrix4f().rotationX((float) camera.getBeta()).rotateY((float) camera.getAlpha());
+                assertTrue("rotation for yaw " + yaw + ", pitch " + pitch, expected.equals(actual, 1E-5f));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.joml.camera;
+
+import junit.framework.TestCase;
+
+/**
+ * Publishes snapshots from one writer thread to several reader threads and checks that no reader ever sees a snapshot
+ * which the writer modifies while the reader holds it.
+ */
+public class CameraSnapshotBufferTest extends TestCase {
+
+    private static final int READERS = 4;
+    private static final int SNAPSHOTS = 200000;
+
+    private volatile Throwable failure;
+    private volatile boolean stop;
+
+    /**
+     * Write the same value derived from <code>k</code> into every field, so that readers can detect torn snapshots.
+     */
+    private static void write(CameraSnapshot s, int k) {
+        s.view.translation(k, k, k);
+        s.invView.translation(-k, -k, -k);
+        s.position.set(k, k, k);
+        s.orientation.set(0.0f, 0.0f, 0.0f, k);
+        s.time = k;
+    }
+
+    /**
+     * @return the value written by {@link #write(CameraSnapshot, int)}
+     */
+    private static int check(CameraSnapshot s) {
+        int k = (int) s.time;
+        if (s.view.m30() != k || s.view.m31() != k || s.view.m32() != k || s.invView.m30() != -k
+                || s.invView.m31() != -k || s.invView.m32() != -k || s.position.x != k || s.position.y != k
+                || s.position.z != k || s.orientation.w != k) {
+            throw new AssertionError("Torn snapshot at time " + k);
+        }
+        return k;
+    }
+
+    public void testReadersNeverSeeModifiedSnapshots() throws InterruptedException {
+        final CameraSnapshotBuffer buffer = new CameraSnapshotBuffer(READERS + 2);
+        write(buffer.beginWrite(), 0);
+        buffer.publish();
+        Thread[] readers = new Thread[READERS];
+        for (int r = 0; r < READERS; r++) {
+            final boolean copy = r % 2 == 1;
+            readers[r] = new Thread() {
+                public void run() {
+                    try {
+                        CameraSnapshot dest = new CameraSnapshot();
+                        int last = 0;
+                        while (!stop) {
+                            int k;
+                            if (copy) {
+                                k = check(buffer.read(dest));
+                            } else {
+                                CameraSnapshot s = buffer.acquire();
+                                k = check(s);
+                                /* Give the writer time to reuse the snapshot if it wrongly could */
+                                Thread.yield();
+                                if (check(s) != k) {
+                                    throw new AssertionError("Snapshot " + k + " was modified while acquired");
+                                }
+                                buffer.release(s);
+                            }
+                            if (k < last) {
+                                throw new AssertionError("Snapshot " + k + " acquired after " + last);
+                            }
+                            last = k;
+                        }
+                    } catch (Throwable t) {
+                        failure = t;
+                    }
+                }
+            };
+            readers[r].start();
+        }
+        try {
+            for (int k = 1; k <= SNAPSHOTS && failure == null; k++) {
+                CameraSnapshot s = buffer.beginWrite();
+                /* With n readers, n + 2 snapshots never let the writer skip */
+                assertNotNull("Skipped snapshot " + k, s);
+                write(s, k);
+                buffer.publish();
+                if (k % 64 == 0) {
+                    Thread.yield();
+                }
+            }
+        } finally {
+            stop = true;
+            for (int r = 0; r < READERS; r++) {
+                readers[r].join();
+            }
+        }
+        if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+        assertEquals(SNAPSHOTS, check(buffer.read(new CameraSnapshot())));
+    }
+
+}
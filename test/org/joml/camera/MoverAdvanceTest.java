@@ -0,0 +1,84 @@
+package org.joml.camera;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Compares {@link ScalarMover#advance(double, double)} and {@link ArcRotor#advance(double, double)} with the same
+ * number of invocations of <code>update(float)</code>.
+ * <p>
+ * The closed-form runs only differ from the stepwise updates by rounding errors, so the results are compared with a
+ * tolerance relative to the distance travelled.
+ */
+public class MoverAdvanceTest extends TestCase {
+
+    private static final int TRIALS = 2000;
+    private static final double TWO_PI = 2.0 * Math.PI;
+    private static final float[] STEPS = { 1.0f / 60.0f, 1.0f / 30.0f, 1.0f / 144.0f, 0.1f };
+
+    /* Relative to the distance or the velocity change, which allows 1E-15 per step over hundreds of steps */
+    private static final double TOLERANCE = 1E-11;
+
+    public void testScalarMoverAdvanceMatchesUpdate() {
+        Random rnd = new Random(3L);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            ScalarMover expected = new ScalarMover(), actual = new ScalarMover();
+            expected.maxAcceleration = actual.maxAcceleration = 1.0 + rnd.nextDouble() * 300.0;
+            expected.maxDeceleration = actual.maxDeceleration = 1.0 + rnd.nextDouble() * 300.0;
+            expected.current = actual.current = (rnd.nextDouble() - 0.5) * 200.0;
+            expected.target = actual.target = (rnd.nextDouble() - 0.5) * 200.0;
+            expected.velocity = actual.velocity = (rnd.nextDouble() - 0.5) * 100.0;
+            float fixedStep = STEPS[trial % STEPS.length];
+            int steps = 1 + rnd.nextInt(600);
+            double start = expected.current;
+            for (int i = 0; i < steps; i++) {
+                expected.update(fixedStep);
+            }
+            double remaining = actual.advance((steps + 0.5) * fixedStep, fixedStep);
+            assertEquals("remaining time of trial " + trial, 0.5 * fixedStep, remaining, 1E-9);
+            double distance = Math.abs(expected.current - start) + Math.abs(expected.target - start);
+            assertEquals("current of trial " + trial, expected.current, actual.current,
+                    TOLERANCE * (1.0 + distance));
+            assertEquals("velocity of trial " + trial, expected.velocity, actual.velocity,
+                    TOLERANCE * (1.0 + distance + steps * fixedStep * expected.maxAcceleration));
+        }
+    }
+
+    public void testArcRotorAdvanceMatchesUpdate() {
+        Random rnd = new Random(4L);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            ArcRotor expected = new ArcRotor(), actual = new ArcRotor();
+            expected.maxAcceleration = actual.maxAcceleration = 0.5 + rnd.nextDouble() * 20.0;
+            expected.maxDeceleration = actual.maxDeceleration = 0.5 + rnd.nextDouble() * 20.0;
+            if (trial % 2 == 0) {
+                /* Across the wraparound at zero, in either direction and partly moving away from the target */
+                double offset = rnd.nextDouble() * 0.5;
+                if (trial % 4 == 0) {
+                    expected.current = actual.current = offset;
+                    expected.target = actual.target = TWO_PI - rnd.nextDouble() * 0.5;
+                } else {
+                    expected.current = actual.current = TWO_PI - offset;
+                    expected.target = actual.target = rnd.nextDouble() * 0.5;
+                }
+            } else {
+                expected.current = actual.current = rnd.nextDouble() * TWO_PI;
+                expected.target = actual.target = rnd.nextDouble() * TWO_PI;
+            }
+            expected.velocity = actual.velocity = (rnd.nextDouble() - 0.5) * 10.0;
+            float fixedStep = STEPS[trial % STEPS.length];
+            int steps = 1 + rnd.nextInt(600);
+            for (int i = 0; i < steps; i++) {
+                expected.update(fixedStep);
+            }
+            double remaining = actual.advance((steps + 0.5) * fixedStep, fixedStep);
+            assertEquals("remaining time of trial " + trial, 0.5 * fixedStep, remaining, 1E-9);
+            double travelled = TWO_PI + Math.abs(expected.velocity) * steps * fixedStep;
+            assertEquals("current of trial " + trial, 0.0,
+                    Math.IEEEremainder(expected.current - actual.current, TWO_PI), TOLERANCE * travelled);
+            assertEquals("velocity of trial " + trial, expected.velocity, actual.velocity,
+                    TOLERANCE * (1.0 + steps * fixedStep * expected.maxAcceleration));
+        }
+    }
+
+}
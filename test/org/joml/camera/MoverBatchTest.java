@@ -0,0 +1,104 @@
+package org.joml.camera;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Cross-checks {@link ScalarMoverBatch} and {@link ArcRotorBatch} against updating {@link ScalarMover} and
+ * {@link ArcRotor} instances one after another. The batches must produce bit-identical results, whether or not
+ * {@link ScalarMoverBatch#isVectorized() the Vector API} is used.
+ */
+public class MoverBatchTest extends TestCase {
+
+    /* Not a multiple of any vector length, so that every update also has a scalar remainder */
+    private static final int COUNT = 1003;
+    private static final int STEPS = 600;
+    private static final float DT = 1.0f / 60.0f;
+
+    public void testScalarMoverBatch() {
+        Random rnd = new Random(42L);
+        ScalarMover[] movers = new ScalarMover[COUNT];
+        ScalarMoverBatch batch = new ScalarMoverBatch(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            ScalarMover m = new ScalarMover();
+            m.current = (rnd.nextDouble() - 0.5) * 200.0;
+            m.target = (rnd.nextDouble() - 0.5) * 200.0;
+            m.velocity = (rnd.nextDouble() - 0.5) * 20.0;
+            m.maxAcceleration = 1.0 + rnd.nextDouble() * 300.0;
+            m.maxDeceleration = 1.0 + rnd.nextDouble() * 300.0;
+            if (i % 17 == 0) {
+                m.target = m.current;
+            }
+            movers[i] = m;
+            batch.add(m);
+        }
+        for (int step = 0; step < STEPS; step++) {
+            if (step % 100 == 50) {
+                for (int i = 0; i < COUNT; i += 3) {
+                    double t = (rnd.nextDouble() - 0.5) * 200.0;
+                    movers[i].target = t;
+                    batch.target[i] = t;
+                }
+            }
+            for (int i = 0; i < COUNT; i++) {
+                movers[i].update(DT);
+            }
+            /* Update in two ranges which do not start at a vector boundary */
+            batch.update(DT, 0, 501);
+            batch.update(DT, 501, COUNT);
+            for (int i = 0; i < COUNT; i++) {
+                ScalarMover m = movers[i];
+                assertBits(step, i, m.current, batch.current[i]);
+                assertBits(step, i, m.velocity, batch.velocity[i]);
+            }
+        }
+    }
+
+    public void testArcRotorBatch() {
+        Random rnd = new Random(43L);
+        ArcRotor[] rotors = new ArcRotor[COUNT];
+        ArcRotorBatch batch = new ArcRotorBatch(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            ArcRotor r = new ArcRotor();
+            /* Include angles outside of [0, 2pi), which the rotors only wrap after their first move */
+            r.current = (rnd.nextDouble() - 0.25) * 4.0 * Math.PI;
+            r.target = (rnd.nextDouble() - 0.25) * 4.0 * Math.PI;
+            r.velocity = (rnd.nextDouble() - 0.5) * 4.0;
+            r.maxAcceleration = 0.1 + rnd.nextDouble() * 10.0;
+            r.maxDeceleration = 0.1 + rnd.nextDouble() * 10.0;
+            if (i % 19 == 0) {
+                r.target = r.current;
+            }
+            rotors[i] = r;
+            batch.add(r);
+        }
+        for (int step = 0; step < STEPS; step++) {
+            if (step % 100 == 50) {
+                for (int i = 0; i < COUNT; i += 3) {
+                    double t = rnd.nextDouble() * 2.0 * Math.PI;
+                    rotors[i].target = t;
+                    batch.target[i] = t;
+                }
+            }
+            for (int i = 0; i < COUNT; i++) {
+                rotors[i].update(DT);
+            }
+            batch.update(DT, 0, 501);
+            batch.update(DT, 501, COUNT);
+            for (int i = 0; i < COUNT; i++) {
+                ArcRotor r = rotors[i];
+                assertBits(step, i, r.current, batch.current[i]);
+                assertBits(step, i, r.velocity, batch.velocity[i]);
+            }
+        }
+    }
+
+    private static void assertBits(int step, int index, double expected, double actual) {
+        if (Double.doubleToLongBits(expected) != Double.doubleToLongBits(actual)) {
+            fail("Mover " + index + " differs after step " + step + " (vectorized: " + ScalarMoverBatch.isVectorized()
+                    + "): expected " + expected + " but was " + actual);
+        }
+    }
+
+}
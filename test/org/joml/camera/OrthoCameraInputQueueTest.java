@@ -0,0 +1,73 @@
+package org.joml.camera;
+
+import junit.framework.TestCase;
+
+/**
+ * Queues events from several producer threads while one consumer drains them, and checks that every event arrives
+ * exactly once and in the order of its producer.
+ */
+public class OrthoCameraInputQueueTest extends TestCase {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS = 100000;
+
+    /**
+     * Records the mouse moves instead of applying them. The x coordinate is the producer and the y coordinate the
+     * number of the event of that producer.
+     */
+    private static class RecordingControl extends OrthoCameraControl {
+        final int[] next = new int[PRODUCERS];
+        String error;
+
+        RecordingControl() {
+            super(1.0f);
+        }
+
+        public void onMouseMove(int producer, int event) {
+            if (error == null && next[producer] != event) {
+                error = "Producer " + producer + ": expected event " + next[producer] + " but was " + event;
+            }
+            next[producer] = event + 1;
+        }
+    }
+
+    public void testNoEventIsLostOrDuplicated() throws InterruptedException {
+        /* Small enough that the producers regularly find the queue full */
+        final OrthoCameraInputQueue queue = new OrthoCameraInputQueue(64);
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            producers[p] = new Thread() {
+                public void run() {
+                    for (int e = 0; e < EVENTS; e++) {
+                        while (!queue.onMouseMove(producer, e)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            };
+            producers[p].start();
+        }
+        RecordingControl control = new RecordingControl();
+        int drained = 0;
+        long deadline = System.currentTimeMillis() + 60000L;
+        while (drained < PRODUCERS * EVENTS && System.currentTimeMillis() < deadline) {
+            int n = queue.drainTo(control);
+            if (n == 0) {
+                Thread.yield();
+            }
+            drained += n;
+        }
+        for (int p = 0; p < PRODUCERS; p++) {
+            producers[p].join();
+        }
+        assertNull(control.error, control.error);
+        drained += queue.drainTo(control);
+        assertEquals(PRODUCERS * EVENTS, drained);
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals("events of producer " + p, EVENTS, control.next[p]);
+        }
+        assertFalse(control.isLazyUpdate());
+    }
+
+}
@@ -0,0 +1,150 @@
+package org.joml.camera;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.joml.Matrix4f;
+
+import junit.framework.TestCase;
+
+/**
+ * Writes and reads a {@link SharedCameraState} concurrently through two mappings of the same file, as two processes
+ * would, and checks that readers never see a torn state and that they give up on a state whose writer died.
+ * <p>
+ * This only runs against the multi-release JAR, since the baseline class is not {@link SharedCameraState#isSupported()
+ * supported}.
+ */
+public class SharedCameraStateTest extends TestCase {
+
+    private static final int WRITES = 200000;
+    /* Not at the start of the file, to cover region offsets */
+    private static final long POSITION = SharedCameraState.SIZE;
+
+    private File file;
+    private volatile Throwable failure;
+    private volatile boolean stop;
+
+    protected void setUp() throws IOException {
+        assertTrue("Run against the multi-release JAR", SharedCameraState.isSupported());
+        file = File.createTempFile("shared-camera", ".bin");
+    }
+
+    protected void tearDown() {
+        file.delete();
+    }
+
+    public void testConcurrentReadsAreNeverTorn() throws Exception {
+        final SharedCameraState writer = new SharedCameraState(file, POSITION);
+        final SharedCameraState reader = new SharedCameraState(file, POSITION);
+        Thread readerThread = new Thread() {
+            public void run() {
+                try {
+                    FreeCamera camera = new FreeCamera();
+                    Matrix4f view = new Matrix4f();
+                    long last = 0L;
+                    while (!stop) {
+                        long s = reader.read(camera);
+                        if (s == 0L) {
+                            /* Nothing written yet */
+                            continue;
+                        }
+                        float k = camera.position.x;
+                        if (camera.position.y != k || camera.position.z != k || camera.linearVel.x != k
+                                || camera.linearVel.y != -k || camera.angularAcc.z != 2.0f * k) {
+                            throw new AssertionError("Torn state " + s + " at position " + k);
+                        }
+                        checkSequence(s, last);
+                        last = s;
+                        s = reader.readViewMatrix(view);
+                        if (s != 0L && (view.m30() != view.m31() || view.m31() != view.m32())) {
+                            throw new AssertionError("Torn view matrix " + s + ": " + view);
+                        }
+                        checkSequence(s, last);
+                        last = s;
+                    }
+                } catch (Throwable t) {
+                    failure = t;
+                }
+            }
+        };
+        readerThread.start();
+        FreeCamera camera = new FreeCamera();
+        try {
+            for (int k = 1; k <= WRITES && failure == null; k++) {
+                camera.position.set(k, k, k);
+                camera.linearVel.set(k, -k, 0.0f);
+                camera.angularAcc.set(0.0f, 0.0f, 2.0f * k);
+                writer.write(camera, k);
+                if (k % 64 == 0) {
+                    Thread.yield();
+                }
+            }
+        } finally {
+            stop = true;
+            readerThread.join();
+        }
+        if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+        assertEquals(2L * WRITES, reader.read(new FreeCamera()));
+        writer.close();
+        reader.close();
+    }
+
+    private static void checkSequence(long sequence, long last) {
+        if ((sequence & 1L) != 0L || sequence < last) {
+            throw new AssertionError("Sequence " + sequence + " read after " + last);
+        }
+    }
+
+    public void testReadTimesOutWhileWriterIsStuck() throws IOException {
+        SharedCameraState writer = new SharedCameraState(file, POSITION);
+        FreeCamera camera = new FreeCamera();
+        camera.position.set(1.0f, 2.0f, 3.0f);
+        writer.write(camera, 1.0);
+        long sequence = writer.getSequence();
+
+        /* Leave an odd sequence number behind, like a writer process which died while writing */
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            MappedByteBuffer region = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, POSITION, 8);
+            region.order(ByteOrder.nativeOrder());
+            region.putLong(0, sequence + 1L);
+            region.force();
+
+            SharedCameraState reader = new SharedCameraState(file, POSITION);
+            reader.readTimeoutMillis = 50L;
+            long start = System.nanoTime();
+            try {
+                reader.read(new FreeCamera());
+                fail("Read did not time out");
+            } catch (IllegalStateException e) {
+                assertTrue(System.nanoTime() - start >= 50L * 1000000L);
+            }
+            try {
+                reader.readViewMatrix(new Matrix4f());
+                fail("Reading the view matrix did not time out");
+            } catch (IllegalStateException e) {
+                /* expected */
+            }
+
+            /* A new writer continues after the stuck write */
+            SharedCameraState next = new SharedCameraState(file, POSITION);
+            camera.position.set(4.0f, 5.0f, 6.0f);
+            next.write(camera, 2.0);
+            FreeCamera read = new FreeCamera();
+            assertEquals(sequence + 4L, reader.read(read));
+            assertEquals(5.0f, read.position.y, 0.0f);
+            next.close();
+            reader.close();
+        } finally {
+            raf.close();
+            writer.close();
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.joml.camera;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Compares the tiles covered by {@link TileCoverage} with a brute-force intersection test of every tile near randomly
+ * rotated views, and the added and removed tiles with the differences between the tiles of successive views.
+ */
+public class TileCoverageTest extends TestCase {
+
+    private static final float TILE_SIZE = 4.0f;
+    private static final int VIEWS = 2000;
+
+    /**
+     * Uses the world units per pixel passed to
+     * {@link TileCoverage#update(float, float, float, float, float, float, float)} as the level.
+     */
+    private static final TileLevelPolicy LEVEL = new TileLevelPolicy() {
+        public int level(float tileSize, float worldUnitsPerPixel) {
+            return (int) worldUnitsPerPixel;
+        }
+    };
+
+    private float previousCornerX, previousCornerY;
+
+    /**
+     * Return whether the interior of the tile intersects the closed parallelogram, by checking that none of the tile
+     * edges and none of the parallelogram edges is a separating axis.
+     */
+    private static boolean intersects(double[] quad, double minX, double minY, double maxX, double maxY) {
+        double[] tile = { minX, minY, maxX, minY, maxX, maxY, minX, maxY };
+        double[] axes = { 1.0, 0.0, 0.0, 1.0, -(quad[3] - quad[1]), quad[2] - quad[0], -(quad[7] - quad[1]),
+                quad[6] - quad[0] };
+        for (int a = 0; a < axes.length; a += 2) {
+            double tileMin = Double.POSITIVE_INFINITY, tileMax = Double.NEGATIVE_INFINITY;
+            double quadMin = Double.POSITIVE_INFINITY, quadMax = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < 8; i += 2) {
+                double t = tile[i] * axes[a] + tile[i + 1] * axes[a + 1];
+                double q = quad[i] * axes[a] + quad[i + 1] * axes[a + 1];
+                tileMin = Math.min(tileMin, t);
+                tileMax = Math.max(tileMax, t);
+                quadMin = Math.min(quadMin, q);
+                quadMax = Math.max(quadMax, q);
+            }
+            if (Math.max(tileMin, quadMin) >= Math.min(tileMax, quadMax)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the keys of all tiles of the given level whose interior intersects the parallelogram.
+     */
+    private static Set bruteForce(int level, float cornerX, float cornerY, float xSpanX, float xSpanY, float ySpanX,
+            float ySpanY) {
+        double[] quad = { cornerX, cornerY, (double) cornerX + xSpanX, (double) cornerY + xSpanY,
+                (double) cornerX + xSpanX + ySpanX, (double) cornerY + xSpanY + ySpanY, (double) cornerX + ySpanX,
+                (double) cornerY + ySpanY };
+        double size = TILE_SIZE / (double) (1L << level);
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < 8; i += 2) {
+            minX = Math.min(minX, quad[i]);
+            maxX = Math.max(maxX, quad[i]);
+            minY = Math.min(minY, quad[i + 1]);
+            maxY = Math.max(maxY, quad[i + 1]);
+        }
+        Set tiles = new HashSet();
+        for (int y = (int) Math.floor(minY / size) - 1; y <= (int) Math.ceil(maxY / size); y++) {
+            for (int x = (int) Math.floor(minX / size) - 1; x <= (int) Math.ceil(maxX / size); x++) {
+                if (intersects(quad, x * size, y * size, (x + 1) * size, (y + 1) * size)) {
+                    tiles.add(Long.valueOf(TileCoverage.key(level, x, y)));
+                }
+            }
+        }
+        return tiles;
+    }
+
+    public void testCoverageMatchesBruteForce() {
+        Random rnd = new Random(11L);
+        TileCoverage coverage = new TileCoverage(TILE_SIZE, LEVEL);
+        Set previous = new HashSet();
+        for (int view = 0; view < VIEWS; view++) {
+            int level = rnd.nextInt(3);
+            float cornerX = (rnd.nextFloat() - 0.5f) * 100.0f, cornerY = (rnd.nextFloat() - 0.5f) * 100.0f;
+            float width = 1.0f + rnd.nextFloat() * 30.0f, height = 1.0f + rnd.nextFloat() * 30.0f;
+            double angle = view % 5 == 0 ? 0.0 : rnd.nextDouble() * 2.0 * Math.PI;
+            float cos = (float) Math.cos(angle), sin = (float) Math.sin(angle);
+            /* The window's y axis may point either way relative to its x axis */
+            float flip = rnd.nextBoolean() ? 1.0f : -1.0f;
+            float xSpanX = width * cos, xSpanY = width * sin;
+            float ySpanX = -height * sin * flip, ySpanY = height * cos * flip;
+            if (view % 7 == 3) {
+                /* Move the previous view a little, so that most tiles stay covered */
+                level = coverage.level();
+                cornerX = previousCornerX + (rnd.nextFloat() - 0.5f);
+                cornerY = previousCornerY + (rnd.nextFloat() - 0.5f);
+            }
+            previousCornerX = cornerX;
+            previousCornerY = cornerY;
+            boolean changed = coverage.update(cornerX, cornerY, xSpanX, xSpanY, ySpanX, ySpanY, level);
+
+            Set expected = bruteForce(level, cornerX, cornerY, xSpanX, xSpanY, ySpanX, ySpanY);
+            assertEquals("level of view " + view, level, coverage.level());
+            assertEquals("number of tiles of view " + view, expected.size(), coverage.size());
+            long last = -1L;
+            for (int i = 0; i < coverage.size(); i++) {
+                long key = coverage.tile(i);
+                assertTrue("tile " + describe(key) + " of view " + view, expected.contains(Long.valueOf(key)));
+                assertTrue(coverage.contains(key));
+                /* Ordered by row and then by column, so no tile is reported twice */
+                if (last >= 0L) {
+                    int lastX = TileCoverage.x(last), lastY = TileCoverage.y(last);
+                    int x = TileCoverage.x(key), y = TileCoverage.y(key);
+                    assertTrue("order of view " + view, y > lastY || y == lastY && x > lastX);
+                }
+                last = key;
+            }
+
+            Set added = new HashSet(expected);
+            added.removeAll(previous);
+            Set removed = new HashSet(previous);
+            removed.removeAll(expected);
+            assertEquals("added tiles of view " + view, added, toSet(coverage, true));
+            assertEquals("removed tiles of view " + view, removed, toSet(coverage, false));
+            assertEquals(!added.isEmpty() || !removed.isEmpty(), changed);
+            for (Iterator it = removed.iterator(); it.hasNext();) {
+                assertFalse(coverage.contains(((Long) it.next()).longValue()));
+            }
+            previous = expected;
+        }
+    }
+
+    private static Set toSet(TileCoverage coverage, boolean added) {
+        Set set = new HashSet();
+        int count = added ? coverage.addedCount() : coverage.removedCount();
+        for (int i = 0; i < count; i++) {
+            assertTrue("reported twice", set.add(Long.valueOf(added ? coverage.added(i) : coverage.removed(i))));
+        }
+        return set;
+    }
+
+    private static String describe(long key) {
+        return TileCoverage.level(key) + "/" + TileCoverage.x(key) + "/" + TileCoverage.y(key);
+    }
+
+}
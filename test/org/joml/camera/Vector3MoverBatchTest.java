@@ -0,0 +1,91 @@
+package org.joml.camera;
+
+import java.util.Random;
+
+import org.joml.Vector3f;
+
+import junit.framework.TestCase;
+
+/**
+ * Cross-checks {@link Vector3MoverBatch} against updating {@link Vector3Mover} instances one after another. The batch
+ * must produce bit-identical positions, velocities and accelerations.
+ */
+public class Vector3MoverBatchTest extends TestCase {
+
+    private static final int COUNT = 500;
+    private static final int STEPS = 600;
+    private static final float[] DTS = { 1.0f / 60.0f, 1.0f / 30.0f, 0.1f, 1.0f / 144.0f };
+
+    public void testUpdateMatchesMovers() {
+        Random rnd = new Random(7L);
+        Vector3Mover[] movers = new Vector3Mover[COUNT];
+        Vector3MoverBatch batch = new Vector3MoverBatch(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            Vector3Mover m = new Vector3Mover();
+            m.maxDirectAcceleration = 1.0f + rnd.nextFloat() * 50.0f;
+            m.maxDirectDeceleration = 1.0f + rnd.nextFloat() * 150.0f;
+            m.maxPerpendicularDeceleration = 1.0f + rnd.nextFloat() * 50.0f;
+            set(rnd, 50.0f, m.current);
+            set(rnd, 50.0f, m.target);
+            set(rnd, 10.0f, m.velocity);
+            if (i % 13 == 0) {
+                /* Already on the target */
+                m.target.set(m.current);
+            }
+            movers[i] = m;
+            batch.add(m);
+        }
+        for (int step = 0; step < STEPS; step++) {
+            float dt = DTS[step % DTS.length];
+            if (step % 120 == 60) {
+                for (int i = 0; i < COUNT; i += 4) {
+                    float x = (rnd.nextFloat() - 0.5f) * 100.0f;
+                    float y = (rnd.nextFloat() - 0.5f) * 100.0f;
+                    float z = (rnd.nextFloat() - 0.5f) * 100.0f;
+                    movers[i].target.set(x, y, z);
+                    batch.target(i, x, y, z);
+                }
+            }
+            for (int i = 0; i < COUNT; i++) {
+                movers[i].update(dt);
+            }
+            if (step % 5 == 0) {
+                /* Updating the batch in ranges is the same as updating all of it */
+                int split = rnd.nextInt(COUNT + 1);
+                batch.update(dt, 0, split);
+                batch.update(dt, split, COUNT);
+            } else {
+                batch.update(dt);
+            }
+            for (int i = 0; i < COUNT; i++) {
+                Vector3Mover m = movers[i];
+                int j = 3 * i;
+                assertBits(step, i, "current", m.current,
+                        new Vector3f(batch.current[j], batch.current[j + 1], batch.current[j + 2]));
+                assertBits(step, i, "velocity", m.velocity,
+                        new Vector3f(batch.velocity[j], batch.velocity[j + 1], batch.velocity[j + 2]));
+                assertBits(step, i, "acceleration", m.acceleration,
+                        new Vector3f(batch.acceleration[j], batch.acceleration[j + 1], batch.acceleration[j + 2]));
+            }
+        }
+    }
+
+    private static void set(Random rnd, float range, Vector3f v) {
+        v.set((rnd.nextFloat() - 0.5f) * 2.0f * range, (rnd.nextFloat() - 0.5f) * 2.0f * range,
+                (rnd.nextFloat() - 0.5f) * 2.0f * range);
+    }
+
+    private static void assertBits(int step, int index, String what, Vector3f expected, Vector3f actual) {
+        if (Float.floatToIntBits(expected.x) != Float.floatToIntBits(actual.x)
+                || Float.floatToIntBits(expected.y) != Float.floatToIntBits(actual.y)
+                || Float.floatToIntBits(expected.z) != Float.floatToIntBits(actual.z)) {
+            fail("Mover " + index + " " + what + " differs after step " + step + ": expected " + toString(expected)
+                    + " but was " + toString(actual));
+        }
+    }
+
+    private static String toString(Vector3f v) {
+        return "(" + v.x + ", " + v.y + ", " + v.z + ")";
+    }
+
+}
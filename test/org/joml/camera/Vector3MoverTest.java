@@ -0,0 +1,176 @@
+package org.joml.camera;
+
+import java.util.Random;
+
+import org.joml.Vector3f;
+
+import junit.framework.TestCase;
+
+/**
+ * Compares {@link Vector3Mover#update(float)} bit for bit with the original vector-based implementation of the update,
+ * which {@link ReferenceMover} keeps.
+ *
+ * @see Vector3MoverBatchTest
+ */
+public class Vector3MoverTest extends TestCase {
+
+    private static final int COUNT = 500;
+    private static final int STEPS = 600;
+    private static final float[] DTS = { 1.0f / 60.0f, 1.0f / 30.0f, 0.1f, 1.0f / 144.0f };
+
+    /**
+     * The update of <code>Vector3Mover</code> before it was rewritten with scalar locals, including the overshoot
+     * clamp which adds the remaining difference to the target.
+     */
+    private static class ReferenceMover {
+        float maxDirectAcceleration, maxDirectDeceleration, maxPerpendicularDeceleration;
+        final Vector3f current = new Vector3f();
+        final Vector3f target = new Vector3f();
+        final Vector3f velocity = new Vector3f();
+        int clamps;
+
+        private final Vector3f currentToTarget = new Vector3f();
+        private final Vector3f currentToTargetNormalized = new Vector3f();
+        private final Vector3f perpendicularVelocityComponent = new Vector3f();
+        private final Vector3f directVelocityComponent = new Vector3f();
+        private final Vector3f directAcceleration = new Vector3f();
+        private final Vector3f perpendicularAcceleration = new Vector3f();
+        private final Vector3f newAcceleration = new Vector3f();
+        private final Vector3f newVelocity = new Vector3f();
+        private final Vector3f way = new Vector3f();
+
+        strictfp void update(float elapsedTimeInSeconds) {
+            currentToTarget.set(target).sub(current);
+            if (length(currentToTarget) < 1E-5) {
+                return;
+            }
+            normalize(currentToTargetNormalized.set(currentToTarget));
+            float dot = dot(currentToTargetNormalized, velocity);
+            perpendicularVelocityComponent.set(currentToTargetNormalized);
+            perpendicularVelocityComponent.mul(dot);
+            perpendicularVelocityComponent.sub(velocity);
+            directVelocityComponent.set(currentToTargetNormalized);
+            directVelocityComponent.mul(Math.abs(dot));
+            float timeToStopPerpendicular = length(perpendicularVelocityComponent) / maxPerpendicularDeceleration;
+            float directStopDistance = lengthSquared(directVelocityComponent) / (2.0f * maxDirectDeceleration);
+            float timeToStopDirect = length(directVelocityComponent) / maxDirectDeceleration;
+            if (dot >= Vector3Mover.SMALL_VALUE_THRESHOLD
+                    && (directStopDistance >= length(currentToTarget) || timeToStopPerpendicular > timeToStopDirect)) {
+                directAcceleration.set(currentToTargetNormalized).mul(maxDirectDeceleration).negate();
+            } else {
+                float neededDirectAcc = length(currentToTarget) / elapsedTimeInSeconds;
+                float directAcc = neededDirectAcc;
+                if (neededDirectAcc > maxDirectAcceleration) {
+                    directAcc = maxDirectAcceleration;
+                }
+                directAcceleration.set(currentToTargetNormalized).mul(directAcc);
+            }
+            float neededPerpendicularAcc = length(perpendicularVelocityComponent) / elapsedTimeInSeconds;
+            float perpendicularDeceleration = neededPerpendicularAcc;
+            if (neededPerpendicularAcc > maxPerpendicularDeceleration) {
+                perpendicularDeceleration = maxPerpendicularDeceleration;
+            }
+            if (length(perpendicularVelocityComponent) > Vector3Mover.SMALL_VALUE_THRESHOLD) {
+                normalize(perpendicularAcceleration.set(perpendicularVelocityComponent)).mul(perpendicularDeceleration);
+            } else {
+                perpendicularAcceleration.set(0.0f, 0.0f, 0.0f);
+            }
+            newAcceleration.set(directAcceleration).add(perpendicularAcceleration);
+            newVelocity.set(newAcceleration).mul(elapsedTimeInSeconds).add(velocity);
+            velocity.set(newVelocity);
+            way.set(velocity).mul(elapsedTimeInSeconds);
+            if (length(way) > length(currentToTarget)) {
+                clamps++;
+                velocity.zero();
+                way.set(currentToTarget);
+            }
+            current.add(way);
+        }
+
+        private static strictfp float lengthSquared(Vector3f v) {
+            return v.x * v.x + (v.y * v.y + v.z * v.z);
+        }
+
+        private static strictfp float length(Vector3f v) {
+            return (float) Math.sqrt(lengthSquared(v));
+        }
+
+        private static strictfp float dot(Vector3f a, Vector3f b) {
+            return a.x * b.x + (a.y * b.y + a.z * b.z);
+        }
+
+        private static strictfp Vector3f normalize(Vector3f v) {
+            return v.mul(1.0f / length(v));
+        }
+    }
+
+    public void testUpdateMatchesReference() {
+        Random rnd = new Random(7L);
+        ReferenceMover[] references = new ReferenceMover[COUNT];
+        Vector3Mover[] movers = new Vector3Mover[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            ReferenceMover r = new ReferenceMover();
+            Vector3Mover m = new Vector3Mover();
+            r.maxDirectAcceleration = m.maxDirectAcceleration = 1.0f + rnd.nextFloat() * 50.0f;
+            r.maxDirectDeceleration = m.maxDirectDeceleration = 1.0f + rnd.nextFloat() * 150.0f;
+            r.maxPerpendicularDeceleration = m.maxPerpendicularDeceleration = 1.0f + rnd.nextFloat() * 50.0f;
+            set(rnd, 50.0f, r.current, m.current);
+            set(rnd, 50.0f, r.target, m.target);
+            set(rnd, 10.0f, r.velocity, m.velocity);
+            if (i % 13 == 0) {
+                /* Already on the target */
+                r.target.set(r.current);
+                m.target.set(m.current);
+            }
+            references[i] = r;
+            movers[i] = m;
+        }
+        int clamps = 0;
+        for (int step = 0; step < STEPS; step++) {
+            float dt = DTS[step % DTS.length];
+            if (step % 120 == 60) {
+                for (int i = 0; i < COUNT; i += 4) {
+                    float x = (rnd.nextFloat() - 0.5f) * 100.0f;
+                    float y = (rnd.nextFloat() - 0.5f) * 100.0f;
+                    float z = (rnd.nextFloat() - 0.5f) * 100.0f;
+                    references[i].target.set(x, y, z);
+                    movers[i].target.set(x, y, z);
+                }
+            }
+            for (int i = 0; i < COUNT; i++) {
+                references[i].update(dt);
+                movers[i].update(dt);
+            }
+            for (int i = 0; i < COUNT; i++) {
+                ReferenceMover r = references[i];
+                Vector3Mover m = movers[i];
+                assertBits(step, i, "current", r.current, m.current);
+                assertBits(step, i, "velocity", r.velocity, m.velocity);
+            }
+        }
+        for (int i = 0; i < COUNT; i++) {
+            clamps += references[i].clamps;
+        }
+        assertTrue("The overshoot clamp was never taken", clamps > 0);
+    }
+
+    private static void set(Random rnd, float range, Vector3f a, Vector3f b) {
+        a.set((rnd.nextFloat() - 0.5f) * 2.0f * range, (rnd.nextFloat() - 0.5f) * 2.0f * range,
+                (rnd.nextFloat() - 0.5f) * 2.0f * range);
+        b.set(a);
+    }
+
+    private static void assertBits(int step, int index, String what, Vector3f expected, Vector3f actual) {
+        if (Float.floatToIntBits(expected.x) != Float.floatToIntBits(actual.x)
+                || Float.floatToIntBits(expected.y) != Float.floatToIntBits(actual.y)
+                || Float.floatToIntBits(expected.z) != Float.floatToIntBits(actual.z)) {
+            fail("Mover " + index + " " + what + " differs after step " + step + ": expected " + toString(expected)
+                    + " but was " + toString(actual));
+        }
+    }
+
+    private static String toString(Vector3f v) {
+        return "(" + v.x + ", " + v.y + ", " + v.z + ")";
+    }
+
+}